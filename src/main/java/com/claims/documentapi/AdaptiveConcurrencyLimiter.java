@@ -0,0 +1,128 @@
+package com.claims.documentapi;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AIMD limit on the number of part uploads in flight.
+ * Completions are grouped into rounds of {@code limit} parts. After each round the aggregate throughput of the
+ * round is compared with the previous one: while it keeps growing the limit is raised by one (additive increase),
+ * a clear drop or any failed part halves it (multiplicative decrease), otherwise it is held. A failure reduces the
+ * limit at most once per round so a burst of errors from one overloaded moment does not collapse it to the minimum.
+ */
+@Slf4j
+final class AdaptiveConcurrencyLimiter {
+
+    private static final double GROWTH_THRESHOLD = 1.05;
+    private static final double DROP_THRESHOLD = 0.8;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitAvailable = lock.newCondition();
+
+    private int limit;
+    private int inFlight;
+
+    private long roundStartNanos = System.nanoTime();
+    private long roundBytes;
+    private int roundCompletions;
+    private boolean roundDecreased;
+    private double previousThroughput;
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+    }
+
+    /**
+     * Fixed limit, for when adaptation is disabled
+     */
+    static AdaptiveConcurrencyLimiter fixed(int limit) {
+        return new AdaptiveConcurrencyLimiter(limit, limit, limit);
+    }
+
+    void acquire() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (inFlight >= limit) {
+                permitAvailable.await();
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Release a permit for a part that was uploaded successfully
+     */
+    void onSuccess(long bytes) {
+        lock.lock();
+        try {
+            inFlight--;
+            roundBytes += bytes;
+            if (++roundCompletions >= limit) {
+                endRound();
+            }
+            permitAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Release a permit for a part whose attempt failed
+     */
+    void onFailure() {
+        lock.lock();
+        try {
+            inFlight--;
+            if (!roundDecreased) {
+                setLimit(limit / 2, "part failure");
+                roundDecreased = true;
+            }
+            permitAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int limit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void endRound() {
+        long elapsedNanos = Math.max(1, System.nanoTime() - roundStartNanos);
+        double throughput = roundBytes * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+        if (!roundDecreased) {
+            if (previousThroughput == 0 || throughput >= previousThroughput * GROWTH_THRESHOLD) {
+                setLimit(limit + 1, "throughput rising");
+            } else if (throughput < previousThroughput * DROP_THRESHOLD) {
+                setLimit(limit / 2, "throughput dropping");
+            }
+        }
+        previousThroughput = throughput;
+        roundStartNanos = System.nanoTime();
+        roundBytes = 0;
+        roundCompletions = 0;
+        roundDecreased = false;
+    }
+
+    private void setLimit(int newLimit, String reason) {
+        int bounded = Math.min(maxLimit, Math.max(minLimit, newLimit));
+        if (bounded != limit) {
+            log.debug("Part upload concurrency {} -> {} ({})", limit, bounded, reason);
+            limit = bounded;
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.claims.documentapi;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size-bounded LRU cache of downloaded attachment content on local disk, keyed by attachment id (which
+ * {@link AttachmentDownloader} prefixes with the tenant, so one cache can serve several tenants).
+ * An entry is served only while it matches the attachment's current {@code fileSize} and, when both sides know it,
+ * its ETag; a stale entry is dropped on lookup. Content is read through read-only memory mappings, so repeated reads
+ * come from the page cache. Each entry is a data file plus a small {@code .meta} file, and the recency order is kept
+ * in the data files' modification times, so the cache survives restarts.
+ * <p>
+ * An evicted file may still be mapped by earlier readers; the mapping stays valid after the file is deleted.
+ * A hit is served without asking the server, so callers of one tenant share its cached content regardless of their
+ * own permissions; use a separate cache where that is not acceptable.
+ */
+public class AttachmentContentCache {
+
+    private static final String DATA_SUFFIX = ".bin";
+    private static final String META_SUFFIX = ".meta";
+    private static final String STAGING_SUFFIX = ".staging";
+
+    private final Path directory;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong stagingSequence = new AtomicLong();
+    private long totalBytes;
+    private long hits;
+    private long misses;
+
+    private record Entry(long size, String eTag) {
+    }
+
+    private AttachmentContentCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Open the cache in {@code directory}, loading the entries left by earlier runs
+     * @param maxBytes upper bound on the content kept; least recently used entries are evicted beyond it
+     */
+    public static AttachmentContentCache open(Path directory, long maxBytes) {
+        if (directory == null) {
+            throw new IllegalArgumentException("Cache directory cannot be null");
+        }
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive");
+        }
+        AttachmentContentCache cache = new AttachmentContentCache(directory.toAbsolutePath(), maxBytes);
+        try {
+            Files.createDirectories(cache.directory);
+            cache.load();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open attachment cache " + directory, e);
+        }
+        return cache;
+    }
+
+    /**
+     * The cached file, or {@code null} when absent or stale
+     * @param fileSize the attachment's current size
+     * @param eTag the attachment's current ETag, or {@code null} to check the size only
+     */
+    public synchronized Path get(String attachmentId, long fileSize, String eTag) {
+        Entry entry = attachmentId != null ? entries.get(attachmentId) : null;
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        Path data = dataFile(attachmentId);
+        if (entry.size() != fileSize || (eTag != null && entry.eTag() != null && !eTag.equals(entry.eTag()))
+                || !Files.isRegularFile(data)) {
+            remove(attachmentId);
+            misses++;
+            return null;
+        }
+        hits++;
+        try {
+            Files.setLastModifiedTime(data, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException ignored) {
+            // Only the recency order after a restart is affected
+        }
+        return data;
+    }
+
+    /**
+     * The cached content mapped read-only, or {@code null} when absent or stale
+     */
+    public MappedByteBuffer map(String attachmentId, long fileSize, String eTag) {
+        Path data = get(attachmentId, fileSize, eTag);
+        if (data == null) {
+            return null;
+        }
+        try {
+            return map(data);
+        } catch (IOException e) {
+            // Evicted between the lookup and the mapping
+            invalidate(attachmentId);
+            return null;
+        }
+    }
+
+    /**
+     * A fresh file in the cache directory to download content into before handing it to {@link #put}
+     */
+    public Path stagingFile() {
+        return directory.resolve(stagingSequence.incrementAndGet() + "-" + System.nanoTime() + STAGING_SUFFIX);
+    }
+
+    /**
+     * Move downloaded content into the cache, replacing any earlier version, and evict beyond the size bound
+     * @return the cached file
+     */
+    public Path put(String attachmentId, Path content, String eTag) {
+        if (attachmentId == null || content == null) {
+            throw new IllegalArgumentException("Attachment id and content cannot be null");
+        }
+        Path data = dataFile(attachmentId);
+        try {
+            long size = Files.size(content);
+            synchronized (this) {
+                remove(attachmentId);
+                Files.writeString(metaFile(attachmentId), size + "\t" + (eTag != null ? eTag : "") + "\n", StandardCharsets.UTF_8);
+                move(content, data);
+                entries.put(attachmentId, new Entry(size, eTag));
+                totalBytes += size;
+                evict(attachmentId);
+            }
+            return data;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to cache attachment " + attachmentId, e);
+        }
+    }
+
+    public synchronized void invalidate(String attachmentId) {
+        if (attachmentId != null) {
+            remove(attachmentId);
+        }
+    }
+
+    public synchronized void clear() {
+        for (String attachmentId : new ArrayList<>(entries.keySet())) {
+            remove(attachmentId);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    static MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private void load() throws IOException {
+        record Loaded(String attachmentId, Entry entry, long lastUsed) {
+        }
+        List<Loaded> loaded = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                // Staging files (and the downloader's partial files next to them) left by an interrupted download
+                if (name.contains(STAGING_SUFFIX)) {
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+                if (!name.endsWith(META_SUFFIX)) {
+                    continue;
+                }
+                String attachmentId = attachmentId(name.substring(0, name.length() - META_SUFFIX.length()));
+                Entry entry = attachmentId != null ? readMeta(file) : null;
+                Path data = attachmentId != null ? dataFile(attachmentId) : null;
+                if (entry == null || !Files.isRegularFile(data) || Files.size(data) != entry.size()) {
+                    Files.deleteIfExists(file);
+                    if (data != null) {
+                        Files.deleteIfExists(data);
+                    }
+                    continue;
+                }
+                loaded.add(new Loaded(attachmentId, entry, Files.getLastModifiedTime(data).toMillis()));
+            }
+        }
+        loaded.sort(Comparator.comparingLong(Loaded::lastUsed));
+        for (Loaded entry : loaded) {
+            entries.put(entry.attachmentId(), entry.entry());
+            totalBytes += entry.entry().size();
+        }
+        evict(null);
+    }
+
+    private static Entry readMeta(Path meta) {
+        try {
+            String[] fields = Files.readString(meta, StandardCharsets.UTF_8).strip().split("\t", 2);
+            String eTag = fields.length == 2 && !fields[1].isEmpty() ? fields[1] : null;
+            return new Entry(Long.parseLong(fields[0]), eTag);
+        } catch (IOException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Drop least recently used entries until the content fits, keeping {@code keep} even if it alone is too large
+     */
+    private void evict(String keep) {
+        for (Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator(); totalBytes > maxBytes && it.hasNext(); ) {
+            Map.Entry<String, Entry> eldest = it.next();
+            String attachmentId = eldest.getKey();
+            if (!Objects.equals(attachmentId, keep)) {
+                totalBytes -= eldest.getValue().size();
+                it.remove();
+                deleteFiles(attachmentId);
+            }
+        }
+    }
+
+    private void remove(String attachmentId) {
+        Entry entry = entries.remove(attachmentId);
+        if (entry != null) {
+            totalBytes -= entry.size();
+        }
+        deleteFiles(attachmentId);
+    }
+
+    private void deleteFiles(String attachmentId) {
+        try {
+            Files.deleteIfExists(dataFile(attachmentId));
+            Files.deleteIfExists(metaFile(attachmentId));
+        } catch (IOException ignored) {
+            // Left behind; dropped on the next open since it is no longer indexed
+        }
+    }
+
+    private Path dataFile(String attachmentId) {
+        return directory.resolve(fileName(attachmentId) + DATA_SUFFIX);
+    }
+
+    private Path metaFile(String attachmentId) {
+        return directory.resolve(fileName(attachmentId) + META_SUFFIX);
+    }
+
+    /**
+     * Attachment ids are hex-encoded so that any id is a safe file name
+     */
+    private static String fileName(String attachmentId) {
+        return HexFormat.of().formatHex(attachmentId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String attachmentId(String fileName) {
+        try {
+            return new String(HexFormat.of().parseHex(fileName), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
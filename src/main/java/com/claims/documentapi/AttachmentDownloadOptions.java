@@ -0,0 +1,47 @@
+package com.claims.documentapi;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Tuning knobs for {@link AttachmentDownloader}.
+ */
+@Getter
+@Builder(toBuilder = true)
+public class AttachmentDownloadOptions {
+
+    /** Maximum number of ranges downloaded concurrently. */
+    @Builder.Default
+    private final int parallelism = 8;
+
+    /** Size of each Range request; attachments no larger than this are fetched with a single request. */
+    @Builder.Default
+    private final int chunkSizeBytes = 8 * 1024 * 1024;
+
+    /** Attempts per range (first try included) before the whole download fails. */
+    @Builder.Default
+    private final int maxChunkAttempts = 3;
+
+    /** Delay before the first retry of a range; doubled on each further attempt. */
+    @Builder.Default
+    private final Duration retryBackoff = Duration.ofMillis(500);
+
+    @Builder.Default
+    private final Duration connectTimeout = Duration.ofSeconds(10);
+
+    /** Timeout for a single range GET. */
+    @Builder.Default
+    private final Duration chunkTimeout = Duration.ofMinutes(5);
+
+    /**
+     * Local content cache used by {@link AttachmentDownloader#read}, with entries kept apart per tenant; {@code null}
+     * disables it.
+     */
+    private final AttachmentContentCache contentCache;
+
+    public static AttachmentDownloadOptions defaults() {
+        return builder().build();
+    }
+}
@@ -0,0 +1,17 @@
+package com.claims.documentapi;
+
+import lombok.Data;
+
+/**
+ * Outcome of an {@link AttachmentDownloader} download.
+ */
+@Data
+public class AttachmentDownloadResult {
+    private String documentId;
+    private String attachmentId;
+    private long size;
+    private String eTag;
+    private String contentType;
+    /** Number of HTTP requests the content was fetched with. */
+    private int requests;
+}
@@ -0,0 +1,443 @@
+package com.claims.documentapi;
+
+import com.claims.documentapi.dto.DocumentDto;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Downloads attachments from their presigned URLs.
+ * The first request asks for the first chunk and learns the total size from {@code Content-Range}; the remaining
+ * chunks are then fetched concurrently with Range requests (bounded by
+ * {@link AttachmentDownloadOptions#getParallelism()}), each written at its offset of the target file as the bytes
+ * arrive. Ranges are pinned to the first response's ETag with {@code If-Match}, so a file replaced mid-download
+ * fails instead of mixing versions. Servers that ignore Range are handled with a single streamed GET.
+ * With an {@link AttachmentContentCache} configured, {@link #read} serves repeated reads from local files.
+ * Progress is reported to the client's {@link TransferListener}, if any; each range is one part.
+ */
+@Slf4j
+public class AttachmentDownloader implements AutoCloseable {
+
+    private static final Pattern CONTENT_RANGE = Pattern.compile("bytes (\\d+)-(\\d+)/(\\d+)");
+
+    private final DocumentApiClient client;
+    private final AttachmentDownloadOptions options;
+    private final HttpClient httpClient;
+    private final ExecutorService executor;
+
+    public AttachmentDownloader(DocumentApiClient client) {
+        this(client, AttachmentDownloadOptions.defaults());
+    }
+
+    public AttachmentDownloader(DocumentApiClient client, AttachmentDownloadOptions options) {
+        if (client == null) {
+            throw new IllegalArgumentException("Client cannot be null");
+        }
+        this.client = client;
+        this.options = options != null ? options : AttachmentDownloadOptions.defaults();
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(this.options.getConnectTimeout())
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        this.executor = TransferSupport.newDaemonPool(this.options.getParallelism(), "attachment-download-");
+    }
+
+    /**
+     * Download an attachment to a file, replacing it only once the download has completed
+     * @param documentId document owning the attachment
+     * @param attachmentId attachment to download
+     * @param target destination file
+     * @return size and ETag of the downloaded content
+     */
+    public AttachmentDownloadResult download(String documentId, String attachmentId, Path target) {
+        AttachmentDownloadResult result;
+        try {
+            String url = downloadUrl(documentId, attachmentId);
+            result = downloadTo(url, target, tracker(documentId, attachmentId));
+        } catch (RuntimeException e) {
+            forgetUrl(documentId, attachmentId);
+            throw e;
+        }
+        result.setDocumentId(documentId);
+        result.setAttachmentId(attachmentId);
+        return result;
+    }
+
+    /**
+     * Download an attachment into a channel. A {@link FileChannel} is written with concurrent ranges starting at its
+     * current position (which is advanced past the content); any other channel receives one sequential stream.
+     */
+    public AttachmentDownloadResult download(String documentId, String attachmentId, WritableByteChannel target) {
+        AttachmentDownloadResult result;
+        try {
+            String url = downloadUrl(documentId, attachmentId);
+            result = downloadTo(url, target, tracker(documentId, attachmentId));
+        } catch (RuntimeException e) {
+            forgetUrl(documentId, attachmentId);
+            throw e;
+        }
+        result.setDocumentId(documentId);
+        result.setAttachmentId(attachmentId);
+        return result;
+    }
+
+    /**
+     * Content of an attachment, mapped read-only from the {@link AttachmentContentCache}. The cached copy is used
+     * while it matches {@code fileSize}; otherwise the attachment is downloaded into the cache first.
+     * @param fileSize the attachment's current size, as listed by the API
+     */
+    public ByteBuffer read(String documentId, String attachmentId, long fileSize) {
+        return read(documentId, attachmentId, fileSize, null);
+    }
+
+    /**
+     * Content of an attachment, mapped read-only from the {@link AttachmentContentCache}. The cached copy is used
+     * while it matches {@code fileSize} and {@code eTag}; otherwise the attachment is downloaded into the cache first.
+     * @param fileSize the attachment's current size, as listed by the API
+     * @param eTag the attachment's current ETag, or {@code null} to check the size only
+     * @throws IllegalStateException if the downloaded content does not match the size or ETag; it is not cached, as
+     *         every later read with the same listing would miss and download it again
+     */
+    public ByteBuffer read(String documentId, String attachmentId, long fileSize, String eTag) {
+        AttachmentContentCache cache = options.getContentCache();
+        if (cache == null) {
+            throw new IllegalStateException("No content cache configured");
+        }
+        String key = contentKey(attachmentId);
+        ByteBuffer cached = cache.map(key, fileSize, eTag);
+        if (cached != null) {
+            return cached;
+        }
+        Path staging = cache.stagingFile();
+        AttachmentDownloadResult result = download(documentId, attachmentId, staging);
+        try {
+            if (result.getSize() != fileSize) {
+                throw new IllegalStateException("Attachment " + attachmentId + " is " + result.getSize()
+                        + " bytes, not the listed " + fileSize + "; list it again");
+            }
+            if (eTag != null && result.getETag() != null && !eTag.equals(result.getETag())) {
+                throw new IllegalStateException("Attachment " + attachmentId + " has ETag " + result.getETag()
+                        + ", not the expected " + eTag + "; list it again");
+            }
+            return AttachmentContentCache.map(cache.put(key, staging, result.getETag()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map cached attachment " + attachmentId, e);
+        } finally {
+            deleteQuietly(staging);
+        }
+    }
+
+    /**
+     * Content of a listed attachment; see {@link #read(String, String, long)}. A listing carries no ETag, so only
+     * the size is checked against the cached copy.
+     */
+    public ByteBuffer read(String documentId, DocumentDto attachment) {
+        if (attachment == null) {
+            throw new IllegalArgumentException("Attachment cannot be null");
+        }
+        String owner = attachment.getDocumentId() != null ? attachment.getDocumentId() : documentId;
+        return read(owner, attachment.getId(), attachment.getFileSize());
+    }
+
+    /**
+     * Key of an attachment in the content cache. It includes the tenant, so a cache shared by the clients of several
+     * tenants never serves one tenant's content to another.
+     */
+    private String contentKey(String attachmentId) {
+        return client.getActiveTenant() + "/" + attachmentId;
+    }
+
+    /**
+     * Download from an already obtained presigned URL to a file
+     */
+    public AttachmentDownloadResult downloadUrl(String url, Path target) {
+        if (target == null) {
+            throw new IllegalArgumentException("Target cannot be null");
+        }
+        return downloadTo(url, target, tracker(null, target.getFileName().toString()));
+    }
+
+    /**
+     * Download from an already obtained presigned URL into a channel
+     */
+    public AttachmentDownloadResult downloadUrl(String url, WritableByteChannel target) {
+        if (target == null) {
+            throw new IllegalArgumentException("Target cannot be null");
+        }
+        return downloadTo(url, target, tracker(null, null));
+    }
+
+    private AttachmentDownloadResult downloadTo(String url, Path target, TransferTracker tracker) {
+        if (target == null) {
+            throw new IllegalArgumentException("Target cannot be null");
+        }
+        Path temp = target.resolveSibling(target.getFileName() + ".download");
+        try {
+            AttachmentDownloadResult result;
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                result = downloadRanges(url, channel, 0, tracker);
+            }
+            moveIntoPlace(temp, target);
+            tracker.completed();
+            return result;
+        } catch (Exception e) {
+            deleteQuietly(temp);
+            throw failure(e, tracker);
+        }
+    }
+
+    private AttachmentDownloadResult downloadTo(String url, WritableByteChannel target, TransferTracker tracker) {
+        if (target == null) {
+            throw new IllegalArgumentException("Target cannot be null");
+        }
+        try {
+            AttachmentDownloadResult result;
+            if (target instanceof FileChannel fileChannel) {
+                long start = fileChannel.position();
+                result = downloadRanges(url, fileChannel, start, tracker);
+                fileChannel.position(start + result.getSize());
+            } else {
+                long startNanos = System.nanoTime();
+                HttpResponse<Long> response = httpClient.send(request(url).build(), info -> isSuccess(info.statusCode())
+                        ? ChannelBodySubscriber.sequential(target, throttle(), tracker::bytes)
+                        : HttpResponse.BodySubscribers.replacing(0L));
+                requireSuccess(response.statusCode());
+                tracker.setTotals(response.body(), 1);
+                tracker.partCompleted(1, response.body(), System.nanoTime() - startNanos);
+                result = result(response.body(), response.headers(), 1);
+            }
+            tracker.completed();
+            return result;
+        } catch (Exception e) {
+            throw failure(e, tracker);
+        }
+    }
+
+    private String downloadUrl(String documentId, String attachmentId) {
+        if (documentId == null || documentId.isBlank() || attachmentId == null || attachmentId.isBlank()) {
+            throw new IllegalArgumentException("Document id and attachment id cannot be null/blank");
+        }
+        String url = client.getAttachmentDownloadUrl(documentId, attachmentId);
+        if (url == null || url.isBlank()) {
+            throw new IllegalStateException("No download URL returned for attachment " + attachmentId);
+        }
+        return url.trim();
+    }
+
+    /**
+     * A cached URL may have been revoked or expired early; make the next attempt fetch a fresh one
+     */
+    private void forgetUrl(String documentId, String attachmentId) {
+        client.forgetDownloadUrl(documentId, attachmentId);
+    }
+
+    private AttachmentDownloadResult downloadRanges(String url, FileChannel channel, long start, TransferTracker tracker)
+            throws Exception {
+        long chunkSize = Math.max(1, options.getChunkSizeBytes());
+        BandwidthScheduler.Throttle throttle = throttle();
+        long startNanos = System.nanoTime();
+        HttpResponse<Long> first = httpClient.send(request(url).header("Range", range(0, chunkSize)).build(),
+                info -> switch (info.statusCode()) {
+                    case 206 -> ChannelBodySubscriber.positional(channel, start, chunkSize, throttle, tracker::bytes);
+                    case 200 -> ChannelBodySubscriber.positional(channel, start, Long.MAX_VALUE, throttle, tracker::bytes);
+                    default -> HttpResponse.BodySubscribers.replacing(0L);
+                });
+        if (first.statusCode() == 200) {
+            tracker.setTotals(first.body(), 1);
+            tracker.partCompleted(1, first.body(), System.nanoTime() - startNanos);
+            return result(first.body(), first.headers(), 1);
+        }
+        if (first.statusCode() == 416) {
+            // Range not satisfiable: the object is empty
+            tracker.setTotals(0, 0);
+            return result(0, first.headers(), 1);
+        }
+        requireSuccess(first.statusCode());
+
+        long totalSize = totalSize(first.headers());
+        tracker.setTotals(totalSize, (int) ((totalSize + chunkSize - 1) / chunkSize));
+        String eTag = first.headers().firstValue("ETag").orElse(null);
+        long firstLength = Math.min(chunkSize, totalSize);
+        if (first.body() == firstLength) {
+            tracker.partCompleted(1, first.body(), System.nanoTime() - startNanos);
+        } else {
+            // A short first range would leave a hole in the file: fetch it again like any other range
+            IOException shortRange = new IOException("Short range at 0: " + first.body() + " of " + firstLength + " bytes");
+            log.warn("Range 0-{} failed (attempt 1): {}", firstLength - 1, shortRange.getMessage());
+            tracker.retry(1, 1, first.body(), shortRange);
+            downloadChunkWithRetry(url, eTag, throttle, tracker, channel, start, 0, firstLength);
+        }
+        TransferSupport.Tasks<Long> ranges = new TransferSupport.Tasks<>(executor);
+        for (long offset = chunkSize; offset < totalSize; offset += chunkSize) {
+            long chunkOffset = offset;
+            long length = Math.min(chunkSize, totalSize - offset);
+            ranges.submit(() -> downloadChunkWithRetry(url, eTag, throttle, tracker, channel, start, chunkOffset, length));
+        }
+        ranges.awaitAll();
+        return result(totalSize, first.headers(), ranges.size() + 1);
+    }
+
+    private long downloadChunkWithRetry(String url, String eTag, BandwidthScheduler.Throttle throttle, TransferTracker tracker,
+                                        FileChannel channel, long start, long offset, long length) {
+        long backoffMillis = options.getRetryBackoff().toMillis();
+        int maxAttempts = Math.max(1, options.getMaxChunkAttempts());
+        int partNumber = (int) (offset / Math.max(1, options.getChunkSizeBytes())) + 1;
+        for (int attempt = 1; ; attempt++) {
+            AtomicLong received = new AtomicLong();
+            try {
+                long startNanos = System.nanoTime();
+                long downloaded = downloadChunk(url, eTag, throttle, bytes -> {
+                    received.addAndGet(bytes);
+                    tracker.bytes(bytes);
+                }, channel, start, offset, length);
+                tracker.partCompleted(partNumber, downloaded, System.nanoTime() - startNanos);
+                return downloaded;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while downloading range at " + offset, e);
+            } catch (Exception e) {
+                if (attempt >= maxAttempts || e instanceof PreconditionFailedException) {
+                    throw new RuntimeException("Range at " + offset + " failed after " + attempt + " attempts", e);
+                }
+                log.warn("Range {}-{} failed (attempt {}/{}): {}", offset, offset + length - 1, attempt, maxAttempts, e.getMessage());
+                tracker.retry(partNumber, attempt, received.get(), e);
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while downloading range at " + offset, interrupted);
+                }
+                backoffMillis *= 2;
+            }
+        }
+    }
+
+    private long downloadChunk(String url, String eTag, BandwidthScheduler.Throttle throttle, LongConsumer onWritten,
+                               FileChannel channel, long start, long offset, long length) throws IOException, InterruptedException {
+        HttpRequest.Builder request = request(url).header("Range", range(offset, length));
+        if (eTag != null) {
+            request.header("If-Match", eTag);
+        }
+        HttpResponse<Long> response = httpClient.send(request.build(), info -> info.statusCode() == 206
+                ? ChannelBodySubscriber.positional(channel, start + offset, length, throttle, onWritten)
+                : HttpResponse.BodySubscribers.replacing(0L));
+        if (response.statusCode() == 412) {
+            throw new PreconditionFailedException("Attachment changed during download (ETag " + eTag + ")");
+        }
+        if (response.statusCode() != 206) {
+            throw new IOException("Range request failed. status=" + response.statusCode() + ", offset=" + offset);
+        }
+        if (response.body() != length) {
+            throw new IOException("Short range at " + offset + ": " + response.body() + " of " + length + " bytes");
+        }
+        return length;
+    }
+
+    private TransferTracker tracker(String documentId, String name) {
+        return TransferTracker.start(client.getTransferListener(), TransferProgress.Direction.DOWNLOAD, documentId, name, -1, -1);
+    }
+
+    private BandwidthScheduler.Throttle throttle() {
+        BandwidthScheduler scheduler = client.getBandwidthScheduler();
+        return scheduler != null ? scheduler.forTenant(client.getActiveTenant()) : null;
+    }
+
+    private HttpRequest.Builder request(String url) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .timeout(options.getChunkTimeout())
+                .GET();
+    }
+
+    private static String range(long offset, long length) {
+        return "bytes=" + offset + "-" + (offset + length - 1);
+    }
+
+    private static long totalSize(HttpHeaders headers) throws IOException {
+        String contentRange = headers.firstValue("Content-Range").orElse("");
+        Matcher matcher = CONTENT_RANGE.matcher(contentRange);
+        if (!matcher.matches()) {
+            throw new IOException("Unusable Content-Range in ranged response: '" + contentRange + "'");
+        }
+        return Long.parseLong(matcher.group(3));
+    }
+
+    private static boolean isSuccess(int statusCode) {
+        return statusCode >= 200 && statusCode < 300;
+    }
+
+    private static void requireSuccess(int statusCode) throws IOException {
+        if (!isSuccess(statusCode)) {
+            throw new IOException("Download failed. status=" + statusCode);
+        }
+    }
+
+    private static AttachmentDownloadResult result(long size, HttpHeaders headers, int requests) {
+        AttachmentDownloadResult result = new AttachmentDownloadResult();
+        result.setSize(size);
+        result.setETag(headers.firstValue("ETag").orElse(null));
+        result.setContentType(headers.firstValue("Content-Type").orElse(null));
+        result.setRequests(requests);
+        return result;
+    }
+
+    private static void moveIntoPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static RuntimeException failure(Exception e, TransferTracker tracker) {
+        Throwable cause = TransferSupport.unwrap(e);
+        tracker.failed(cause);
+        if (cause instanceof InterruptedException) {
+            Thread.currentThread().interrupt();
+        }
+        log.error("Attachment download failed: {}", cause.getMessage());
+        return new RuntimeException("Failed to download attachment", cause);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private static final class PreconditionFailedException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        private PreconditionFailedException(String message) {
+            super(message);
+        }
+    }
+}
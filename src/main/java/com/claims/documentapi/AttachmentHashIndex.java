@@ -0,0 +1,148 @@
+package com.claims.documentapi;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local, persistent record of the content hash (SHA-256) and size of uploaded attachments, keyed by attachment id.
+ * The API does not expose content hashes, so this index is what lets {@link AttachmentUploader} recognise a file
+ * that is already attached. Entries are appended to a text file and forced to disk, one line each; the last entry
+ * for an attachment wins. A torn last line is ignored and cut off before the next entry.
+ */
+public final class AttachmentHashIndex implements AutoCloseable {
+
+    private static final int HASH_BUFFER_SIZE = 1024 * 1024;
+
+    private final Path path;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    /** Length of the complete lines; anything after it is a torn line. */
+    private long validLength;
+    private FileChannel writer;
+
+    /**
+     * Size and SHA-256 (hex) of an attachment's content
+     */
+    public record Entry(long size, String sha256) {
+    }
+
+    private AttachmentHashIndex(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Load the index from {@code path}, creating it on first write if it does not exist
+     */
+    public static AttachmentHashIndex open(Path path) {
+        if (path == null) {
+            throw new IllegalArgumentException("Index path cannot be null");
+        }
+        AttachmentHashIndex index = new AttachmentHashIndex(path);
+        if (Files.isRegularFile(path)) {
+            try {
+                byte[] content = Files.readAllBytes(path);
+                int validLength = content.length;
+                while (validLength > 0 && content[validLength - 1] != '\n') {
+                    validLength--;
+                }
+                index.validLength = validLength;
+                for (String line : new String(content, 0, validLength, StandardCharsets.UTF_8).lines().toList()) {
+                    String[] fields = line.split("\t");
+                    if (fields.length == 3 && fields[2].length() == 64) {
+                        try {
+                            index.entries.put(fields[0], new Entry(Long.parseLong(fields[1]), fields[2]));
+                        } catch (NumberFormatException ignored) {
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read attachment hash index " + path, e);
+            }
+        }
+        return index;
+    }
+
+    public Entry get(String attachmentId) {
+        return attachmentId != null ? entries.get(attachmentId) : null;
+    }
+
+    /**
+     * Record an attachment's content; the line is forced to disk before this returns
+     */
+    public synchronized void put(String attachmentId, long size, String sha256) {
+        if (attachmentId == null || sha256 == null) {
+            return;
+        }
+        Entry entry = new Entry(size, sha256);
+        if (entry.equals(entries.get(attachmentId))) {
+            return;
+        }
+        try {
+            if (writer == null) {
+                Path parent = path.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                writer = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                if (writer.size() > validLength) {
+                    // Appended to a torn line, this entry would be lost as well
+                    writer.truncate(validLength);
+                }
+            }
+            ByteBuffer line = StandardCharsets.UTF_8.encode(attachmentId + "\t" + size + "\t" + sha256 + "\n");
+            while (line.hasRemaining()) {
+                writer.write(line);
+            }
+            writer.force(false);
+            entries.put(attachmentId, entry);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write attachment hash index " + path, e);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * SHA-256 (hex) of a file, read sequentially through one buffer
+     */
+    static String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(HASH_BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    @Override
+    public synchronized void close() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException ignored) {
+            }
+            writer = null;
+        }
+    }
+}
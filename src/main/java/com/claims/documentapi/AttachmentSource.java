@@ -0,0 +1,150 @@
+package com.claims.documentapi;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Content of one attachment to upload: a local file, or a stream/channel whose bytes are read exactly once while
+ * uploading (no spooling to disk). The length may be unknown ({@link #UNKNOWN_LENGTH}) for streams.
+ */
+public final class AttachmentSource {
+
+    public static final long UNKNOWN_LENGTH = -1;
+
+    private final String fileName;
+    private final String contentType;
+    private final long length;
+    private final Path path;
+    private final ReadableByteChannel channel;
+    private final AtomicBoolean opened = new AtomicBoolean();
+
+    private AttachmentSource(String fileName, String contentType, long length, Path path, ReadableByteChannel channel) {
+        if (fileName == null || fileName.isBlank()) {
+            throw new IllegalArgumentException("File name cannot be null/blank");
+        }
+        this.fileName = fileName;
+        this.contentType = contentType;
+        this.length = length < 0 ? UNKNOWN_LENGTH : length;
+        this.path = path;
+        this.channel = channel;
+    }
+
+    public static AttachmentSource of(File file) {
+        if (file == null) {
+            throw new IllegalArgumentException("File cannot be null");
+        }
+        return new AttachmentSource(file.getName(), null, file.length(), file.toPath(), null);
+    }
+
+    public static AttachmentSource of(Path path) {
+        if (path == null) {
+            throw new IllegalArgumentException("Path cannot be null");
+        }
+        return of(path.toFile());
+    }
+
+    /**
+     * @param length number of bytes the stream will deliver, or {@link #UNKNOWN_LENGTH}
+     */
+    public static AttachmentSource of(String fileName, InputStream inputStream, long length) {
+        if (inputStream == null) {
+            throw new IllegalArgumentException("Input stream cannot be null");
+        }
+        return new AttachmentSource(fileName, null, length, null, Channels.newChannel(inputStream));
+    }
+
+    /**
+     * @param length number of bytes the channel will deliver, or {@link #UNKNOWN_LENGTH}
+     */
+    public static AttachmentSource of(String fileName, ReadableByteChannel channel, long length) {
+        if (channel == null) {
+            throw new IllegalArgumentException("Channel cannot be null");
+        }
+        return new AttachmentSource(fileName, null, length, null, channel);
+    }
+
+    /**
+     * Same content, uploaded with the given MIME type
+     */
+    public AttachmentSource withContentType(String contentType) {
+        return new AttachmentSource(fileName, contentType, length, path, channel);
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * MIME type as given, else probed from a file's name, else {@code application/octet-stream}
+     */
+    public String getContentType() {
+        if (contentType != null && !contentType.isBlank()) {
+            return contentType;
+        }
+        if (path != null) {
+            try {
+                String probed = Files.probeContentType(path);
+                if (probed != null && !probed.isBlank()) {
+                    return probed;
+                }
+            } catch (IOException ignored) {
+            }
+        }
+        return "application/octet-stream";
+    }
+
+    /**
+     * Length in bytes, or {@link #UNKNOWN_LENGTH}
+     */
+    public long getLength() {
+        return length;
+    }
+
+    public boolean isLengthKnown() {
+        return length != UNKNOWN_LENGTH;
+    }
+
+    /**
+     * Local file backing this source, or null for streams
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Whether the content can be read more than once (only file-backed sources)
+     */
+    public boolean isRepeatable() {
+        return path != null;
+    }
+
+    /**
+     * Open the content for reading. Stream sources can be opened only once; the caller closes the channel.
+     */
+    public ReadableByteChannel openChannel() throws IOException {
+        if (path != null) {
+            return FileChannel.open(path, StandardOpenOption.READ);
+        }
+        if (!opened.compareAndSet(false, true)) {
+            throw new IllegalStateException("Stream source " + fileName + " has already been consumed");
+        }
+        return channel;
+    }
+
+    public InputStream openStream() throws IOException {
+        return Channels.newInputStream(openChannel());
+    }
+
+    @Override
+    public String toString() {
+        return fileName + (isLengthKnown() ? " (" + length + " bytes)" : " (unknown length)");
+    }
+}
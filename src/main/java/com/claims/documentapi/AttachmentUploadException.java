@@ -0,0 +1,28 @@
+package com.claims.documentapi;
+
+import com.claims.documentapi.dto.DocumentAttachmentDto;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Thrown by {@link AttachmentUploader} when some attachments could not be uploaded.
+ * The attachments that did make it are available so the caller can keep or clean them up.
+ */
+@Getter
+public class AttachmentUploadException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Attachments created before or while the others failed. */
+    private final List<DocumentAttachmentDto> uploaded;
+
+    /** File names of the sources that failed. */
+    private final List<String> failedFiles;
+
+    public AttachmentUploadException(String message, Throwable cause, List<DocumentAttachmentDto> uploaded, List<String> failedFiles) {
+        super(message, cause);
+        this.uploaded = List.copyOf(uploaded);
+        this.failedFiles = List.copyOf(failedFiles);
+    }
+}
@@ -0,0 +1,49 @@
+package com.claims.documentapi;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Routing and concurrency settings for {@link AttachmentUploader}.
+ */
+@Getter
+@Builder(toBuilder = true)
+public class AttachmentUploadOptions {
+
+    /** Files at least this large (and streams of unknown length) go through the multipart session flow. */
+    @Builder.Default
+    private final long multipartThresholdBytes = 32L * 1024 * 1024;
+
+    /** Upper bound on the content bytes packed into one batch request. */
+    @Builder.Default
+    private final long batchByteBudget = 64L * 1024 * 1024;
+
+    /** Upper bound on the number of files in one batch request. */
+    @Builder.Default
+    private final int maxFilesPerBatch = 100;
+
+    /** Batch requests sent concurrently. */
+    @Builder.Default
+    private final int batchConcurrency = 2;
+
+    /** Files uploaded through multipart sessions concurrently (each one also uploads its parts in parallel). */
+    @Builder.Default
+    private final int multipartFileConcurrency = 2;
+
+    /**
+     * Enables deduplication: file sources whose size and SHA-256 match an existing attachment of the document (as
+     * recorded in this index) are not uploaded again, and every uploaded file is recorded. {@code null} disables it.
+     */
+    private final AttachmentHashIndex hashIndex;
+
+    /** Files hashed concurrently when deduplicating. */
+    @Builder.Default
+    private final int hashConcurrency = 4;
+
+    @Builder.Default
+    private final MultipartUploadOptions multipartOptions = MultipartUploadOptions.defaults();
+
+    public static AttachmentUploadOptions defaults() {
+        return builder().build();
+    }
+}
@@ -0,0 +1,314 @@
+package com.claims.documentapi;
+
+import com.claims.documentapi.dto.DocumentAttachmentDto;
+import com.claims.documentapi.dto.DocumentDto;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Uploads any mix of attachments through the cheapest path for each one.
+ * Small sources are packed into as few batch requests as the byte budget allows (first-fit decreasing), large ones
+ * and streams of unknown length go through {@link MultipartUploader}; batches and multipart uploads run concurrently.
+ * The result lists the created attachments in the order of the input.
+ * <p>
+ * With a {@link AttachmentUploadOptions#getHashIndex() hash index} configured, files are hashed first and those
+ * already attached to the document (same size, same recorded hash) or repeated in the input are skipped; the
+ * existing attachment is returned in their place.
+ */
+@Slf4j
+public class AttachmentUploader implements AutoCloseable {
+
+    private final DocumentApiClient client;
+    private final AttachmentUploadOptions options;
+    private final MultipartUploader multipartUploader;
+    private final ExecutorService batchExecutor;
+    private final ExecutorService multipartExecutor;
+    private final ExecutorService hashExecutor;
+
+    public AttachmentUploader(DocumentApiClient client) {
+        this(client, AttachmentUploadOptions.defaults());
+    }
+
+    public AttachmentUploader(DocumentApiClient client, AttachmentUploadOptions options) {
+        if (client == null) {
+            throw new IllegalArgumentException("Client cannot be null");
+        }
+        this.client = client;
+        this.options = options != null ? options : AttachmentUploadOptions.defaults();
+        this.multipartUploader = new MultipartUploader(client, this.options.getMultipartOptions());
+        this.batchExecutor = TransferSupport.newDaemonPool(this.options.getBatchConcurrency(), "attachment-batch-");
+        this.multipartExecutor = TransferSupport.newDaemonPool(this.options.getMultipartFileConcurrency(), "attachment-multipart-");
+        this.hashExecutor = this.options.getHashIndex() != null
+                ? TransferSupport.newDaemonPool(this.options.getHashConcurrency(), "attachment-hash-")
+                : null;
+    }
+
+    public List<DocumentAttachmentDto> uploadAttachments(String documentId, List<File> files, String lockId) {
+        if (files == null || files.isEmpty()) {
+            throw new IllegalArgumentException("Files list cannot be null/empty");
+        }
+        List<AttachmentSource> sources = new ArrayList<>(files.size());
+        for (File file : files) {
+            if (file == null) {
+                continue;
+            }
+            if (!file.exists() || !file.isFile()) {
+                throw new IllegalArgumentException("File does not exist or is not a regular file: " + file);
+            }
+            sources.add(AttachmentSource.of(file));
+        }
+        return uploadAttachmentSources(documentId, sources, lockId);
+    }
+
+    /**
+     * Upload the sources, routing each by size
+     * @return created attachments, in input order
+     * @throws AttachmentUploadException if any source failed; the attachments that were created are attached
+     */
+    public List<DocumentAttachmentDto> uploadAttachmentSources(String documentId, List<AttachmentSource> sources, String lockId) {
+        if (documentId == null || documentId.isBlank()) {
+            throw new IllegalArgumentException("Document id cannot be null/blank");
+        }
+        if (sources == null || sources.isEmpty()) {
+            throw new IllegalArgumentException("Files list cannot be null/empty");
+        }
+
+        DocumentAttachmentDto[] results = new DocumentAttachmentDto[sources.size()];
+        String[] hashes = new String[sources.size()];
+        int[] duplicateOf = new int[sources.size()];
+        Arrays.fill(duplicateOf, -1);
+        if (options.getHashIndex() != null) {
+            deduplicate(documentId, sources, hashes, results, duplicateOf);
+        }
+
+        List<IndexedSource> small = new ArrayList<>();
+        List<IndexedSource> large = new ArrayList<>();
+        for (int i = 0; i < sources.size(); i++) {
+            AttachmentSource source = sources.get(i);
+            if (source == null || results[i] != null || duplicateOf[i] >= 0) {
+                continue;
+            }
+            IndexedSource indexed = new IndexedSource(i, source);
+            if (source.isLengthKnown() && source.getLength() < options.getMultipartThresholdBytes()) {
+                small.add(indexed);
+            } else {
+                large.add(indexed);
+            }
+        }
+        List<List<IndexedSource>> batches = planBatches(small, options.getBatchByteBudget(), options.getMaxFilesPerBatch());
+        log.debug("Uploading {} attachment(s) to document {}: {} batch request(s), {} multipart upload(s)",
+                small.size() + large.size(), documentId, batches.size(), large.size());
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        List<List<IndexedSource>> futureSources = new ArrayList<>();
+        for (List<IndexedSource> batch : batches) {
+            futures.add(CompletableFuture.runAsync(() -> uploadBatch(documentId, batch, lockId, results), batchExecutor));
+            futureSources.add(batch);
+        }
+        for (IndexedSource source : large) {
+            futures.add(CompletableFuture.runAsync(() -> uploadMultipart(documentId, source, lockId, results), multipartExecutor));
+            futureSources.add(List.of(source));
+        }
+
+        Throwable failure = null;
+        List<String> failedFiles = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).join();
+            } catch (CompletionException e) {
+                Throwable cause = TransferSupport.unwrap(e);
+                if (failure == null) {
+                    failure = cause;
+                } else if (failure != cause) {
+                    failure.addSuppressed(cause);
+                }
+                futureSources.get(i).forEach(source -> failedFiles.add(source.source().getFileName()));
+            }
+        }
+
+        for (int i = 0; i < sources.size(); i++) {
+            if (duplicateOf[i] >= 0) {
+                results[i] = results[duplicateOf[i]];
+                if (results[i] == null) {
+                    failedFiles.add(sources.get(i).getFileName());
+                }
+            }
+            if (hashes[i] != null && results[i] != null) {
+                options.getHashIndex().put(results[i].getId(), sources.get(i).getLength(), hashes[i]);
+            }
+        }
+
+        List<DocumentAttachmentDto> uploaded = new ArrayList<>(sources.size());
+        for (DocumentAttachmentDto attachment : results) {
+            if (attachment != null) {
+                uploaded.add(attachment);
+            }
+        }
+        if (failure != null) {
+            log.error("Failed to upload {} of {} attachment(s) to document {}: {}",
+                    failedFiles.size(), small.size() + large.size(), documentId, failure.getMessage());
+            throw new AttachmentUploadException("Failed to upload attachments " + failedFiles, failure, uploaded, failedFiles);
+        }
+        return uploaded;
+    }
+
+    /**
+     * Hash the file sources in parallel and resolve each one that is already attached (same size, then same hash in
+     * the index) or repeats an earlier source. Sources that cannot be hashed are simply uploaded.
+     */
+    private void deduplicate(String documentId, List<AttachmentSource> sources, String[] hashes,
+                             DocumentAttachmentDto[] results, int[] duplicateOf) {
+        List<CompletableFuture<String>> hashFutures = new ArrayList<>(sources.size());
+        for (AttachmentSource source : sources) {
+            if (source == null || !source.isRepeatable() || source.getPath() == null) {
+                hashFutures.add(null);
+                continue;
+            }
+            hashFutures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return AttachmentHashIndex.sha256(source.getPath());
+                } catch (IOException e) {
+                    log.debug("Could not hash {}: {}", source.getPath(), e.getMessage());
+                    return null;
+                }
+            }, hashExecutor));
+        }
+
+        Map<Long, List<DocumentDto>> existingBySize = new HashMap<>();
+        try {
+            List<DocumentDto> existing = client.getDocumentAttachments(documentId);
+            if (existing != null) {
+                for (DocumentDto attachment : existing) {
+                    existingBySize.computeIfAbsent(attachment.getFileSize(), size -> new ArrayList<>()).add(attachment);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not list attachments of document {}, uploading without deduplication: {}", documentId, e.getMessage());
+        }
+
+        Map<String, Integer> firstByHash = new HashMap<>();
+        int skipped = 0;
+        for (int i = 0; i < sources.size(); i++) {
+            String hash = hashFutures.get(i) != null ? hashFutures.get(i).join() : null;
+            if (hash == null) {
+                continue;
+            }
+            hashes[i] = hash;
+            long size = sources.get(i).getLength();
+            Integer first = firstByHash.putIfAbsent(size + ":" + hash, i);
+            if (first != null) {
+                duplicateOf[i] = first;
+                skipped++;
+                continue;
+            }
+            for (DocumentDto attachment : existingBySize.getOrDefault(size, List.of())) {
+                AttachmentHashIndex.Entry entry = options.getHashIndex().get(attachment.getId());
+                if (entry != null && entry.size() == size && entry.sha256().equals(hash)) {
+                    results[i] = existingAttachment(attachment);
+                    skipped++;
+                    break;
+                }
+            }
+        }
+        if (skipped > 0) {
+            log.debug("Skipping {} attachment(s) already present on document {}", skipped, documentId);
+        }
+    }
+
+    private static DocumentAttachmentDto existingAttachment(DocumentDto existing) {
+        DocumentAttachmentDto attachment = new DocumentAttachmentDto();
+        attachment.setId(existing.getId());
+        attachment.setDocumentId(existing.getDocumentId());
+        attachment.setFileName(existing.getFileName());
+        attachment.setOriginalFileName(existing.getFileName());
+        attachment.setContentType(existing.getFileType());
+        attachment.setFileSize(existing.getFileSize());
+        return attachment;
+    }
+
+    private void uploadBatch(String documentId, List<IndexedSource> batch, String lockId, DocumentAttachmentDto[] results) {
+        List<AttachmentSource> sources = batch.stream().map(IndexedSource::source).toList();
+        List<DocumentAttachmentDto> created = client.uploadAttachmentSources(documentId, sources, lockId);
+        if (created.size() != batch.size()) {
+            throw new IllegalStateException("Batch upload returned " + created.size() + " attachment(s) for " + batch.size() + " file(s)");
+        }
+        // The batch endpoint answers in request order
+        for (int i = 0; i < batch.size(); i++) {
+            results[batch.get(i).index()] = created.get(i);
+        }
+    }
+
+    private void uploadMultipart(String documentId, IndexedSource indexed, String lockId, DocumentAttachmentDto[] results) {
+        AttachmentSource source = indexed.source();
+        MultipartUploadResult upload = multipartUploader.upload(documentId, source, lockId);
+
+        DocumentAttachmentDto attachment = new DocumentAttachmentDto();
+        attachment.setId(upload.getAttachmentId());
+        attachment.setDocumentId(documentId);
+        attachment.setFileName(upload.getFileName());
+        attachment.setOriginalFileName(upload.getFileName());
+        attachment.setContentType(source.getContentType());
+        attachment.setFileSize(upload.getFileSize());
+        if (upload.getCompleteResponse() != null) {
+            attachment.setS3Key(upload.getCompleteResponse().getS3Key());
+            attachment.setS3Bucket(upload.getCompleteResponse().getBucket());
+        }
+        results[indexed.index()] = attachment;
+    }
+
+    /**
+     * Pack sources into batches by first-fit decreasing: largest first, each into the first batch with room left.
+     * A batch never exceeds {@code byteBudget} bytes or {@code maxFiles} files, except that a single source larger
+     * than the budget gets a batch of its own.
+     */
+    static List<List<IndexedSource>> planBatches(List<IndexedSource> sources, long byteBudget, int maxFiles) {
+        List<IndexedSource> bySizeDescending = new ArrayList<>(sources);
+        bySizeDescending.sort(Comparator.comparingLong((IndexedSource s) -> s.source().getLength()).reversed());
+
+        List<List<IndexedSource>> batches = new ArrayList<>();
+        List<Long> batchBytes = new ArrayList<>();
+        for (IndexedSource source : bySizeDescending) {
+            long size = source.source().getLength();
+            int target = -1;
+            for (int i = 0; i < batches.size(); i++) {
+                if (batches.get(i).size() < Math.max(1, maxFiles) && batchBytes.get(i) + size <= byteBudget) {
+                    target = i;
+                    break;
+                }
+            }
+            if (target < 0) {
+                batches.add(new ArrayList<>());
+                batchBytes.add(0L);
+                target = batches.size() - 1;
+            }
+            batches.get(target).add(source);
+            batchBytes.set(target, batchBytes.get(target) + size);
+        }
+        batches.forEach(batch -> batch.sort(Comparator.comparingInt(IndexedSource::index)));
+        return batches;
+    }
+
+    record IndexedSource(int index, AttachmentSource source) {
+    }
+
+    @Override
+    public void close() {
+        batchExecutor.shutdownNow();
+        multipartExecutor.shutdownNow();
+        if (hashExecutor != null) {
+            hashExecutor.shutdownNow();
+        }
+        multipartUploader.close();
+    }
+}
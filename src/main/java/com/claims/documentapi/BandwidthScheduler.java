@@ -0,0 +1,176 @@
+package com.claims.documentapi;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token-bucket bandwidth limit shared by attachment transfers (batch uploads, multipart parts, downloads).
+ * The global rate is never exceeded; while several tenants are transferring, each one is held to its weighted
+ * share of it, and a tenant transferring alone may use all of it. Up to {@code burstBytes} may be sent at once
+ * after a pause. Transfers ask for bytes before sending them and wait (or are rescheduled) when the bucket is
+ * empty, which leaves the remaining link capacity to interactive API calls.
+ * <p>
+ * One instance is meant to be shared: set it on every client with {@code setBandwidthScheduler}.
+ */
+public class BandwidthScheduler {
+
+    public static final String DEFAULT_TENANT = "default";
+
+    /** A tenant counts as transferring while it holds reservations this recent. */
+    private static final long ACTIVE_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final long bytesPerSecond;
+    private final long burstNanos;
+    private final Map<String, TenantState> tenants = new HashMap<>();
+    private long nextFreeNanos;
+
+    private static final class TenantState {
+        private double weight = 1.0;
+        private long nextFreeNanos = Long.MIN_VALUE / 2;
+    }
+
+    /**
+     * @param bytesPerSecond global cap for all transfers using this scheduler
+     */
+    public BandwidthScheduler(long bytesPerSecond) {
+        this(bytesPerSecond, Math.max(64 * 1024, bytesPerSecond / 10));
+    }
+
+    public BandwidthScheduler(long bytesPerSecond, long burstBytes) {
+        if (bytesPerSecond <= 0) {
+            throw new IllegalArgumentException("bytesPerSecond must be positive");
+        }
+        if (burstBytes < 0) {
+            throw new IllegalArgumentException("burstBytes cannot be negative");
+        }
+        this.bytesPerSecond = bytesPerSecond;
+        this.burstNanos = nanosFor(burstBytes, bytesPerSecond);
+        this.nextFreeNanos = System.nanoTime();
+    }
+
+    public long getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    /**
+     * Relative share of a tenant while other tenants are transferring too (default 1)
+     */
+    public synchronized void setWeight(String tenant, double weight) {
+        if (!(weight > 0)) {
+            throw new IllegalArgumentException("Weight must be positive");
+        }
+        state(tenant).weight = weight;
+    }
+
+    /**
+     * Reserve {@code bytes} for a tenant
+     * @return nanoseconds to wait before sending them; 0 when they may be sent now
+     */
+    public synchronized long reserve(String tenant, long bytes) {
+        long now = System.nanoTime();
+        TenantState state = state(tenant);
+        double activeWeight = state.weight;
+        for (TenantState other : tenants.values()) {
+            if (other != state && other.nextFreeNanos + ACTIVE_WINDOW_NANOS > now) {
+                activeWeight += other.weight;
+            }
+        }
+        double tenantRate = bytesPerSecond * state.weight / activeWeight;
+
+        // Each clock is the time at which everything reserved so far has been paid for; the burst is the debt
+        // a reservation may run up before it has to wait
+        nextFreeNanos = Math.max(nextFreeNanos, now) + nanosFor(bytes, bytesPerSecond);
+        state.nextFreeNanos = Math.max(state.nextFreeNanos, now) + nanosFor(bytes, tenantRate);
+
+        return Math.max(0, Math.max(nextFreeNanos, state.nextFreeNanos) - burstNanos - now);
+    }
+
+    /**
+     * Reserve {@code bytes} and block until they may be sent
+     */
+    public void acquire(String tenant, long bytes) throws InterruptedException {
+        long waitNanos = reserve(tenant, bytes);
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * This scheduler's limit as seen by one tenant
+     */
+    public Throttle forTenant(String tenant) {
+        return new Throttle(this, tenant != null && !tenant.isBlank() ? tenant : DEFAULT_TENANT);
+    }
+
+    private TenantState state(String tenant) {
+        return tenants.computeIfAbsent(tenant != null && !tenant.isBlank() ? tenant : DEFAULT_TENANT, t -> new TenantState());
+    }
+
+    private static long nanosFor(long bytes, double rate) {
+        return (long) (bytes * 1_000_000_000.0 / rate);
+    }
+
+    /**
+     * A scheduler bound to the tenant a transfer runs for
+     */
+    public record Throttle(BandwidthScheduler scheduler, String tenant) {
+
+        public long reserve(long bytes) {
+            return scheduler.reserve(tenant, bytes);
+        }
+
+        public void acquire(long bytes) throws InterruptedException {
+            scheduler.acquire(tenant, bytes);
+        }
+
+        /**
+         * Wrap a blocking stream so every write waits for its bandwidth first
+         */
+        public OutputStream wrap(OutputStream out) {
+            return new ThrottledOutputStream(out, this);
+        }
+    }
+
+    private static final class ThrottledOutputStream extends FilterOutputStream {
+
+        private static final int MAX_WRITE = 64 * 1024;
+
+        private final Throttle throttle;
+
+        private ThrottledOutputStream(OutputStream out, Throttle throttle) {
+            super(out);
+            this.throttle = throttle;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            await(1);
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                int n = Math.min(len, MAX_WRITE);
+                await(n);
+                out.write(b, off, n);
+                off += n;
+                len -= n;
+            }
+        }
+
+        private void await(int bytes) throws IOException {
+            try {
+                throttle.acquire(bytes);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for upload bandwidth");
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.claims.documentapi;
+
+import lombok.Getter;
+
+/**
+ * Thrown by {@link TenantBulkhead} when a call is refused because its tenant already has as many calls in flight
+ * and waiting as it is allowed. The call was not sent; it can be retried later.
+ */
+@Getter
+public class BulkheadFullException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Tenant whose compartment was full. */
+    private final String tenant;
+
+    public BulkheadFullException(String tenant, String message) {
+        super(message);
+        this.tenant = tenant;
+    }
+}
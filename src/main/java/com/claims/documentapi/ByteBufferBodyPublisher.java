@@ -0,0 +1,160 @@
+package com.claims.documentapi;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * Request body publisher that hands read-only slices of a single {@link ByteBuffer} to the HTTP client.
+ * Backed by a memory-mapped file region, the bytes go from the page cache to the socket without being copied
+ * into heap arrays. Every subscription starts from the beginning, so the publisher can be reused for retries.
+ * A throttled publisher reserves bandwidth for each chunk and, when it has to wait, resumes on a timer instead of
+ * blocking the HTTP client's thread. A tracked publisher reports the size of each chunk as it is handed over.
+ */
+final class ByteBufferBodyPublisher implements HttpRequest.BodyPublisher {
+
+    static final int CHUNK_SIZE = 256 * 1024;
+
+    private final ByteBuffer content;
+    private final BandwidthScheduler.Throttle throttle;
+    private final LongConsumer onSent;
+
+    ByteBufferBodyPublisher(ByteBuffer content) {
+        this(content, null, null);
+    }
+
+    private ByteBufferBodyPublisher(ByteBuffer content, BandwidthScheduler.Throttle throttle, LongConsumer onSent) {
+        this.content = content.asReadOnlyBuffer();
+        this.throttle = throttle;
+        this.onSent = onSent;
+    }
+
+    /**
+     * Map {@code length} bytes of the channel starting at {@code offset} and publish them without heap copies
+     */
+    static ByteBufferBodyPublisher ofFileRegion(FileChannel channel, long offset, int length) throws IOException {
+        return new ByteBufferBodyPublisher(channel.map(FileChannel.MapMode.READ_ONLY, offset, length));
+    }
+
+    /**
+     * The bytes this publisher sends, as an independent read-only view
+     */
+    ByteBuffer content() {
+        return content.duplicate();
+    }
+
+    /**
+     * The same content, paced by {@code throttle}; {@code null} returns this publisher
+     */
+    ByteBufferBodyPublisher throttled(BandwidthScheduler.Throttle throttle) {
+        return throttle != null ? new ByteBufferBodyPublisher(content, throttle, onSent) : this;
+    }
+
+    /**
+     * The same content, reporting each chunk's size to {@code onSent}; {@code null} returns this publisher
+     */
+    ByteBufferBodyPublisher tracked(LongConsumer onSent) {
+        return onSent != null ? new ByteBufferBodyPublisher(content, throttle, onSent) : this;
+    }
+
+    @Override
+    public long contentLength() {
+        return content.remaining();
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+        subscriber.onSubscribe(new ChunkSubscription(subscriber, content.duplicate(), throttle, onSent));
+    }
+
+    private static final class ChunkSubscription implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super ByteBuffer> subscriber;
+        private final ByteBuffer remaining;
+        private final BandwidthScheduler.Throttle throttle;
+        private final LongConsumer onSent;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger drainers = new AtomicInteger();
+        private final AtomicBoolean terminated = new AtomicBoolean();
+        /** Waiting for the bandwidth already reserved for the next chunk. */
+        private volatile boolean paused;
+        /** Bandwidth for the next chunk has been reserved; only touched by the draining thread. */
+        private boolean reserved;
+
+        private ChunkSubscription(Flow.Subscriber<? super ByteBuffer> subscriber, ByteBuffer remaining,
+                                  BandwidthScheduler.Throttle throttle, LongConsumer onSent) {
+            this.subscriber = subscriber;
+            this.remaining = remaining;
+            this.throttle = throttle;
+            this.onSent = onSent;
+        }
+
+        @Override
+        public void request(long n) {
+            if (terminated.get()) {
+                return;
+            }
+            if (n <= 0) {
+                if (terminated.compareAndSet(false, true)) {
+                    subscriber.onError(new IllegalArgumentException("Non-positive request: " + n));
+                }
+                return;
+            }
+            demand.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            terminated.set(true);
+        }
+
+        /**
+         * Emit chunks while there is demand. Re-entrant calls (request() from inside onNext) only bump the
+         * counter so the loop on the first caller's stack picks up the extra demand.
+         */
+        private void drain() {
+            if (drainers.getAndIncrement() != 0) {
+                return;
+            }
+            do {
+                while (!terminated.get() && !paused && demand.get() > 0 && remaining.hasRemaining()) {
+                    int length = Math.min(CHUNK_SIZE, remaining.remaining());
+                    if (throttle != null && !reserved) {
+                        reserved = true;
+                        long waitNanos = throttle.reserve(length);
+                        if (waitNanos > 0) {
+                            paused = true;
+                            CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS).execute(this::resume);
+                            break;
+                        }
+                    }
+                    reserved = false;
+                    ByteBuffer chunk = remaining.slice(remaining.position(), length);
+                    remaining.position(remaining.position() + length);
+                    demand.decrementAndGet();
+                    subscriber.onNext(chunk);
+                    if (onSent != null) {
+                        onSent.accept(length);
+                    }
+                }
+                if (!remaining.hasRemaining() && terminated.compareAndSet(false, true)) {
+                    subscriber.onComplete();
+                }
+            } while (drainers.decrementAndGet() != 0);
+        }
+
+        private void resume() {
+            paused = false;
+            drain();
+        }
+    }
+}
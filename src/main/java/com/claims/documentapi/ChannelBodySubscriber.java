@@ -0,0 +1,108 @@
+package com.claims.documentapi;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+/**
+ * Response body subscriber that writes each received buffer straight to a channel instead of collecting the body.
+ * With a {@link FileChannel} the bytes are written positionally, so several ranges of one file can be written
+ * concurrently. Completes with the number of bytes written. A throttled subscriber accounts for every buffer
+ * written and delays its next request until the bandwidth is available, which backs the sender off through TCP.
+ * A tracked subscriber reports the bytes written by each call to {@code onWritten}.
+ */
+final class ChannelBodySubscriber implements HttpResponse.BodySubscriber<Long> {
+
+    private final WritableByteChannel channel;
+    private final long position;
+    private final long maxBytes;
+    private final BandwidthScheduler.Throttle throttle;
+    private final LongConsumer onWritten;
+    private final CompletableFuture<Long> result = new CompletableFuture<>();
+    private Flow.Subscription subscription;
+    private long written;
+
+    private ChannelBodySubscriber(WritableByteChannel channel, long position, long maxBytes, BandwidthScheduler.Throttle throttle,
+                                  LongConsumer onWritten) {
+        this.channel = channel;
+        this.position = position;
+        this.maxBytes = maxBytes;
+        this.throttle = throttle;
+        this.onWritten = onWritten;
+    }
+
+    /**
+     * Write the body at {@code position} of the file, failing if it is longer than {@code maxBytes}
+     */
+    static ChannelBodySubscriber positional(FileChannel channel, long position, long maxBytes, BandwidthScheduler.Throttle throttle,
+                                            LongConsumer onWritten) {
+        return new ChannelBodySubscriber(channel, position, maxBytes, throttle, onWritten);
+    }
+
+    /**
+     * Write the body at the channel's current position
+     */
+    static ChannelBodySubscriber sequential(WritableByteChannel channel, BandwidthScheduler.Throttle throttle,
+                                            LongConsumer onWritten) {
+        return new ChannelBodySubscriber(channel, -1, Long.MAX_VALUE, throttle, onWritten);
+    }
+
+    @Override
+    public CompletionStage<Long> getBody() {
+        return result;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(1);
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> items) {
+        try {
+            long received = 0;
+            for (ByteBuffer item : items) {
+                received += item.remaining();
+                if (written + item.remaining() > maxBytes) {
+                    throw new IOException("Response body is longer than the expected " + maxBytes + " bytes");
+                }
+                while (item.hasRemaining()) {
+                    written += position >= 0
+                            ? ((FileChannel) channel).write(item, position + written)
+                            : channel.write(item);
+                }
+            }
+            if (onWritten != null) {
+                onWritten.accept(received);
+            }
+            long waitNanos = throttle != null ? throttle.reserve(received) : 0;
+            if (waitNanos > 0) {
+                CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS).execute(() -> subscription.request(1));
+            } else {
+                subscription.request(1);
+            }
+        } catch (IOException e) {
+            subscription.cancel();
+            result.completeExceptionally(e);
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        result.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        result.complete(written);
+    }
+}
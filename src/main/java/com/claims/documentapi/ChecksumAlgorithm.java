@@ -0,0 +1,12 @@
+package com.claims.documentapi;
+
+/**
+ * Integrity checksum computed for each uploaded part.
+ */
+public enum ChecksumAlgorithm {
+    NONE,
+    /** Sent as {@code Content-MD5}; also checked against the part's ETag when the store returns a plain MD5 ETag. */
+    MD5,
+    /** Sent as {@code x-amz-checksum-crc32c}; the presigned URL must allow that header. */
+    CRC32C
+}
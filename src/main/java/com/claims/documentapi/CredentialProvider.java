@@ -0,0 +1,25 @@
+package com.claims.documentapi;
+
+import com.claims.documentapi.dto.LoginRequest;
+
+import java.util.Map;
+
+/**
+ * Supplies the credentials the client logs in with on its own, e.g. to refresh a token before it expires.
+ */
+@FunctionalInterface
+public interface CredentialProvider {
+
+    /**
+     * @return credentials for the tenant, or {@code null} if the client must not log in to it by itself
+     */
+    LoginRequest credentialsFor(String tenant);
+
+    /**
+     * Fixed credentials per tenant
+     */
+    static CredentialProvider of(Map<String, LoginRequest> credentialsByTenant) {
+        Map<String, LoginRequest> credentials = Map.copyOf(credentialsByTenant);
+        return credentials::get;
+    }
+}
@@ -0,0 +1,211 @@
+package com.claims.documentapi;
+
+import com.claims.documentapi.dto.DocumentResponse;
+import com.claims.documentapi.dto.DocumentSearchRequest;
+
+import java.math.BigDecimal;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Runs one search against several tenants at once and merges the results into a single sequence in the request's
+ * {@code sortBy}/{@code sortDirection} order.
+ * Each tenant's pages are walked by its own {@link DocumentSearchCursor}, so all tenants are fetched concurrently
+ * with read-ahead; the merge holds only the next result of each tenant. Results of one tenant keep the order the
+ * server returned them in, and equal results of different tenants follow the order the tenants were given in.
+ */
+public class CrossTenantSearchCursor implements Iterator<TenantDocument>, AutoCloseable {
+
+    private static final String DEFAULT_SORT_FIELD = "createdAt";
+
+    private final List<TenantCursor> cursors = new ArrayList<>();
+    private final PriorityQueue<TenantCursor> heads;
+
+    private TenantCursor lastTaken;
+    private boolean started;
+    private boolean closed;
+
+    /**
+     * @param pageFetchers page fetcher of each tenant, in tenant order
+     * @param prefetchDepth pages fetched ahead per tenant; at least one, so the tenants are searched concurrently
+     */
+    CrossTenantSearchCursor(Map<String, Function<DocumentSearchRequest, List<DocumentResponse>>> pageFetchers,
+                            DocumentSearchRequest searchRequest,
+                            int prefetchDepth) {
+        if (searchRequest == null) {
+            throw new IllegalArgumentException("Search request cannot be null");
+        }
+        if (pageFetchers == null || pageFetchers.isEmpty()) {
+            throw new IllegalArgumentException("At least one tenant is required");
+        }
+        Comparator<DocumentResponse> order = sortOrder(searchRequest.getSortBy(), searchRequest.getSortDirection());
+        this.heads = new PriorityQueue<>(pageFetchers.size(), Comparator
+                .comparing((TenantCursor cursor) -> cursor.head, order)
+                .thenComparingInt(cursor -> cursor.index));
+        try {
+            // Creating the cursors starts every tenant's first page
+            pageFetchers.forEach((tenant, fetcher) -> cursors.add(new TenantCursor(cursors.size(), tenant,
+                    new DocumentSearchCursor(fetcher, searchRequest, Math.max(1, prefetchDepth)))));
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed) {
+            return false;
+        }
+        try {
+            if (!started) {
+                started = true;
+                cursors.forEach(this::advance);
+            } else if (lastTaken != null) {
+                advance(lastTaken);
+            }
+            lastTaken = null;
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+        if (heads.isEmpty()) {
+            close();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public TenantDocument next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        TenantCursor cursor = heads.poll();
+        lastTaken = cursor;
+        return new TenantDocument(cursor.tenant, cursor.head);
+    }
+
+    /**
+     * Wrap this cursor in a sequential stream that closes the cursor when the stream is closed
+     */
+    public Stream<TenantDocument> stream() {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(this::close);
+    }
+
+    /**
+     * Stop every tenant's search and discard results that have not been consumed; pages already being fetched finish
+     * in the background
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        heads.clear();
+        cursors.forEach(cursor -> cursor.results.close());
+    }
+
+    private void advance(TenantCursor cursor) {
+        if (cursor.results.hasNext()) {
+            cursor.head = cursor.results.next();
+            heads.add(cursor);
+        }
+    }
+
+    /**
+     * Order of search results as requested: by a document field ({@code createdAt}, {@code updatedAt}, {@code id},
+     * ...) or else by the attribute of that name, descending when the direction is {@code desc}. Missing values
+     * sort lowest; values of different types are ordered by type.
+     */
+    static Comparator<DocumentResponse> sortOrder(String sortBy, String sortDirection) {
+        String field = sortBy != null && !sortBy.isBlank() ? sortBy : DEFAULT_SORT_FIELD;
+        Comparator<DocumentResponse> order = Comparator.comparing(document -> sortValue(document, field),
+                CrossTenantSearchCursor::compareValues);
+        return "desc".equalsIgnoreCase(sortDirection) ? order.reversed() : order;
+    }
+
+    private static Object sortValue(DocumentResponse document, String field) {
+        return switch (field) {
+            case "id" -> document.getId();
+            case "documentClassId" -> document.getDocumentClassId();
+            case "documentClassName" -> document.getDocumentClassName();
+            case "createdBy" -> document.getCreatedBy();
+            case "modifiedBy" -> document.getModifiedBy();
+            case "lockedBy" -> document.getLockedBy();
+            case "createdAt" -> document.getCreatedAt();
+            case "updatedAt" -> document.getUpdatedAt();
+            case "lockExpiresAt" -> document.getLockExpiresAt();
+            default -> {
+                String attribute = field.startsWith("attributes.") ? field.substring("attributes.".length()) : field;
+                yield document.getAttributes() != null ? document.getAttributes().get(attribute) : null;
+            }
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareValues(Object a, Object b) {
+        int rank = Integer.compare(typeRank(a), typeRank(b));
+        if (rank != 0 || a == null) {
+            return rank;
+        }
+        if (a instanceof Number x && b instanceof Number y) {
+            try {
+                return new BigDecimal(x.toString()).compareTo(new BigDecimal(y.toString()));
+            } catch (NumberFormatException e) {
+                return Double.compare(x.doubleValue(), y.doubleValue());
+            }
+        }
+        if (a.getClass() == b.getClass() && a instanceof Comparable comparable) {
+            return comparable.compareTo(b);
+        }
+        return a.toString().compareTo(b.toString());
+    }
+
+    private static int typeRank(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof Number) {
+            return 1;
+        }
+        if (value instanceof CharSequence) {
+            return 2;
+        }
+        if (value instanceof Boolean) {
+            return 4;
+        }
+        if (value instanceof TemporalAccessor) {
+            return 5;
+        }
+        return 3;
+    }
+
+    private static final class TenantCursor {
+
+        private final int index;
+        private final String tenant;
+        private final DocumentSearchCursor results;
+        private DocumentResponse head;
+
+        private TenantCursor(int index, String tenant, DocumentSearchCursor results) {
+            this.index = index;
+            this.tenant = tenant;
+            this.results = results;
+        }
+    }
+}
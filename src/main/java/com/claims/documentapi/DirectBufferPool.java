@@ -0,0 +1,46 @@
+package com.claims.documentapi;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Fixed number of equally sized direct buffers, allocated on first use and recycled.
+ * {@link #acquire()} blocks while every buffer is in use, which bounds the memory a streaming transfer can hold.
+ */
+final class DirectBufferPool {
+
+    private final int capacity;
+    private final int bufferSize;
+    private final BlockingQueue<ByteBuffer> free;
+    private int allocated;
+
+    DirectBufferPool(int capacity, int bufferSize) {
+        this.capacity = Math.max(1, capacity);
+        this.bufferSize = bufferSize;
+        this.free = new ArrayBlockingQueue<>(this.capacity);
+    }
+
+    ByteBuffer acquire() throws InterruptedException {
+        ByteBuffer buffer = free.poll();
+        if (buffer != null) {
+            return buffer;
+        }
+        synchronized (this) {
+            if (allocated < capacity) {
+                allocated++;
+                return ByteBuffer.allocateDirect(bufferSize);
+            }
+        }
+        return free.take();
+    }
+
+    void release(ByteBuffer buffer) {
+        buffer.clear();
+        free.offer(buffer);
+    }
+
+    int bufferSize() {
+        return bufferSize;
+    }
+}
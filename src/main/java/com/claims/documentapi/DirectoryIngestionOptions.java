@@ -0,0 +1,52 @@
+package com.claims.documentapi;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings for {@link DirectoryIngestionService}.
+ */
+@Getter
+@Builder(toBuilder = true)
+public class DirectoryIngestionOptions {
+
+    /** Directory the scanners drop files into. Required. */
+    private final Path directory;
+
+    /** Maps each new file to the document it is attached to. Required. */
+    private final DirectoryIngestionService.DocumentResolver documentResolver;
+
+    /** Glob (matched against the file name) selecting the files to ingest. Hidden files are always ignored. */
+    @Builder.Default
+    private final String includeGlob = "*";
+
+    /** A file is considered complete once its size and modification time have not changed for this long. */
+    @Builder.Default
+    private final Duration debounce = Duration.ofSeconds(2);
+
+    /** Files uploaded concurrently. */
+    @Builder.Default
+    private final int concurrency = 4;
+
+    /** Attempts per file before it is given up until it changes again. */
+    @Builder.Default
+    private final int maxAttempts = 3;
+
+    /** Longest {@code close()} waits for the uploads in progress to finish and be recorded. */
+    @Builder.Default
+    private final Duration closeTimeout = Duration.ofSeconds(30);
+
+    /** Progress log of ingested files; defaults to {@code .ingestion-progress} inside the directory. */
+    private final Path progressFile;
+
+    public Path resolveProgressFile() {
+        return progressFile != null ? progressFile : directory.resolve(".ingestion-progress");
+    }
+
+    public static DirectoryIngestionOptions of(Path directory, DirectoryIngestionService.DocumentResolver documentResolver) {
+        return builder().directory(directory).documentResolver(documentResolver).build();
+    }
+}
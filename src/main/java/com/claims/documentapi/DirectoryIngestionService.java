@@ -0,0 +1,311 @@
+package com.claims.documentapi;
+
+import com.claims.documentapi.dto.DocumentAttachmentDto;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Uploads files as they are dropped into a directory.
+ * A {@link WatchService} reports new and modified files; a file is uploaded once its size and modification time
+ * have been stable for the debounce period, so files still being written are left alone. Each file is mapped to a
+ * document by the configured {@link DocumentResolver} and uploaded through {@link AttachmentUploader}, at most
+ * {@link DirectoryIngestionOptions#getConcurrency()} at a time. Uploaded files are recorded in a progress log, so
+ * restarts (which rescan the directory) do not upload them again; enable the uploader's hash index to also cover a
+ * crash between an upload and its record.
+ */
+@Slf4j
+public class DirectoryIngestionService implements AutoCloseable {
+
+    /**
+     * Decides which document a dropped file is attached to
+     */
+    @FunctionalInterface
+    public interface DocumentResolver {
+        /**
+         * @return the document id, or {@code null} to leave the file alone
+         */
+        String documentIdFor(Path file);
+    }
+
+    private final AttachmentUploader uploader;
+    private final DirectoryIngestionOptions options;
+    private final Path directory;
+    private final PathMatcher matcher;
+    private final long debounceNanos;
+    private final IngestionProgressLog progress;
+    private final ExecutorService uploadExecutor;
+    /** Files waiting to become stable; only touched by the watch thread. */
+    private final Map<Path, Candidate> pending = new HashMap<>();
+    private final Set<Path> inFlight = ConcurrentHashMap.newKeySet();
+    private final Queue<Retry> retries = new ConcurrentLinkedQueue<>();
+    private final AtomicLong ingested = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private WatchService watchService;
+    private Thread watchThread;
+    private volatile boolean running;
+
+    private static final class Candidate {
+        private final int attempts;
+        private long size = -1;
+        private long lastModified;
+        private long changedAtNanos;
+
+        private Candidate(int attempts) {
+            this.attempts = attempts;
+        }
+    }
+
+    private record Retry(Path file, int attempts) {
+    }
+
+    public DirectoryIngestionService(AttachmentUploader uploader, DirectoryIngestionOptions options) {
+        if (uploader == null) {
+            throw new IllegalArgumentException("Uploader cannot be null");
+        }
+        if (options == null || options.getDirectory() == null || options.getDocumentResolver() == null) {
+            throw new IllegalArgumentException("Directory and document resolver are required");
+        }
+        if (!Files.isDirectory(options.getDirectory())) {
+            throw new IllegalArgumentException("Not a directory: " + options.getDirectory());
+        }
+        this.uploader = uploader;
+        this.options = options;
+        this.directory = options.getDirectory().toAbsolutePath();
+        this.matcher = directory.getFileSystem().getPathMatcher("glob:" + options.getIncludeGlob());
+        this.debounceNanos = options.getDebounce().toNanos();
+        this.progress = IngestionProgressLog.open(options.resolveProgressFile());
+        this.uploadExecutor = TransferSupport.newDaemonPool(Math.max(1, options.getConcurrency()), "directory-ingestion-upload-");
+    }
+
+    /**
+     * Start watching; files already in the directory are picked up as well
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        try {
+            watchService = directory.getFileSystem().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to watch " + directory, e);
+        }
+        running = true;
+        watchThread = new Thread(this::run, "directory-ingestion");
+        watchThread.setDaemon(true);
+        watchThread.start();
+        log.info("Watching {} for attachments", directory);
+    }
+
+    public long getIngestedCount() {
+        return ingested.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    private void run() {
+        long tickMillis = Math.max(50, TimeUnit.NANOSECONDS.toMillis(debounceNanos) / 4);
+        scan();
+        try {
+            while (running) {
+                WatchKey key = watchService.poll(tickMillis, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            scan();
+                        } else {
+                            track(directory.resolve((Path) event.context()), 0);
+                        }
+                    }
+                    if (!key.reset()) {
+                        log.error("{} is no longer accessible; stopping ingestion", directory);
+                        running = false;
+                    }
+                }
+                for (Retry retry; (retry = retries.poll()) != null; ) {
+                    track(retry.file(), retry.attempts());
+                }
+                submitStableFiles();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException ignored) {
+        }
+    }
+
+    /**
+     * Pick up every file in the directory, e.g. after a restart or when watch events overflowed
+     */
+    private void scan() {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            files.forEach(file -> track(file, 0));
+        } catch (IOException e) {
+            log.warn("Failed to scan {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private void track(Path file, int attempts) {
+        Path name = file.getFileName();
+        if (name == null || name.toString().startsWith(".") || !matcher.matches(name) || inFlight.contains(file)) {
+            return;
+        }
+        Candidate candidate = pending.get(file);
+        if (candidate == null || candidate.attempts < attempts) {
+            pending.put(file, new Candidate(attempts));
+        }
+    }
+
+    private void submitStableFiles() {
+        long now = System.nanoTime();
+        for (Iterator<Map.Entry<Path, Candidate>> it = pending.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Path, Candidate> entry = it.next();
+            Path file = entry.getKey();
+            Candidate candidate = entry.getValue();
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            } catch (IOException e) {
+                it.remove();
+                continue;
+            }
+            if (!attributes.isRegularFile()) {
+                it.remove();
+                continue;
+            }
+            long size = attributes.size();
+            long lastModified = attributes.lastModifiedTime().toMillis();
+            if (size != candidate.size || lastModified != candidate.lastModified) {
+                candidate.size = size;
+                candidate.lastModified = lastModified;
+                candidate.changedAtNanos = now;
+                continue;
+            }
+            // Retried files wait longer after each failed attempt
+            if (now - candidate.changedAtNanos < debounceNanos * (1 + candidate.attempts)) {
+                continue;
+            }
+            it.remove();
+            // An empty file is usually one that was created but not written yet; its next write brings it back
+            if (size == 0 || progress.isIngested(file, size, lastModified)) {
+                continue;
+            }
+            inFlight.add(file);
+            uploadExecutor.execute(() -> ingest(file, size, lastModified, candidate.attempts));
+        }
+    }
+
+    private void ingest(Path file, long size, long lastModified, int attempts) {
+        Retry retry = null;
+        try {
+            if (!running) {
+                // Queued when the service was closed; the next start rescans the directory
+                return;
+            }
+            String documentId = options.getDocumentResolver().documentIdFor(file);
+            if (documentId == null || documentId.isBlank()) {
+                log.debug("No document for {}; skipping", file);
+                return;
+            }
+            List<DocumentAttachmentDto> created = uploader.uploadAttachmentSources(documentId, List.of(AttachmentSource.of(file)), null);
+            String attachmentId = created.isEmpty() ? null : created.get(0).getId();
+            // The upload went through: from here on only a change to the file may lead to uploading it again
+            if (changedSince(file, size, lastModified)) {
+                log.warn("{} changed while it was being uploaded; it will be uploaded again", file);
+                retry = new Retry(file, 0);
+                return;
+            }
+            try {
+                progress.record(file, size, lastModified, documentId, attachmentId);
+            } catch (RuntimeException e) {
+                log.error("Uploaded {} but could not record it; it is skipped until restart: {}", file, e.getMessage());
+            }
+            ingested.incrementAndGet();
+            log.info("Ingested {} into document {} as attachment {}", file.getFileName(), documentId, attachmentId);
+        } catch (Exception e) {
+            if (attempts + 1 >= Math.max(1, options.getMaxAttempts())) {
+                failed.incrementAndGet();
+                log.error("Failed to ingest {} after {} attempt(s): {}", file, attempts + 1, e.getMessage());
+            } else {
+                log.warn("Failed to ingest {} (attempt {}): {}", file, attempts + 1, e.getMessage());
+                retry = new Retry(file, attempts + 1);
+            }
+        } finally {
+            inFlight.remove(file);
+            if (retry != null) {
+                retries.add(retry);
+            }
+        }
+    }
+
+    /**
+     * Whether the file was modified after it was found stable; a file moved away once uploaded has not changed
+     */
+    private static boolean changedSince(Path file, long size, long lastModified) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return attributes.size() != size || attributes.lastModifiedTime().toMillis() != lastModified;
+        } catch (IOException e) {
+            // Includes a file moved away once uploaded
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        Thread thread;
+        synchronized (this) {
+            running = false;
+            thread = watchThread;
+            if (watchService != null) {
+                try {
+                    watchService.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+        if (thread != null) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Uploads in progress are recorded before the log is closed, so a restart does not upload them again
+        uploadExecutor.shutdown();
+        try {
+            if (!uploadExecutor.awaitTermination(options.getCloseTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Uploads still running after {}; they are not recorded", options.getCloseTimeout());
+                uploadExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            uploadExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        progress.close();
+    }
+}
@@ -0,0 +1,719 @@
+package com.claims.documentapi;
+
+import com.claims.documentapi.dto.*;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleResponseConsumer;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.entity.AsyncEntityProducers;
+import org.apache.hc.core5.http.nio.support.AsyncRequestBuilder;
+import org.apache.hc.core5.http.nio.support.classic.AbstractClassicEntityProducer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking client for the Document Management API.
+ * Mirrors {@link DocumentApiClient} but returns {@link CompletableFuture}s backed by the async (HTTP/1.1 and HTTP/2)
+ * Apache HttpClient, so many calls can be kept in flight on a few I/O threads.
+ * Failed calls complete exceptionally with the same Spring {@link RestClientResponseException} types the blocking
+ * client throws.
+ */
+@Slf4j
+public class DocumentApiAsyncClient implements AutoCloseable {
+
+    private static final int UPLOAD_BUFFER_SIZE = 64 * 1024;
+
+    private final CloseableHttpAsyncClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+
+    @Getter
+    private final HttpTransportConfig transportConfig;
+
+    /** Runs the blocking writers that feed multipart request bodies to the I/O reactor. */
+    private final ExecutorService bodyWriterExecutor;
+
+    @Setter
+    private volatile String authToken;
+
+    private final Map<String, String> authTokensByTenant = new ConcurrentHashMap<>();
+
+    @Getter
+    private volatile String activeTenant;
+
+    @Setter
+    @Getter
+    private volatile String defaultTenant = "claims";
+
+    /** Presigned download URLs seen in attachment listings or fetched individually; {@code null} disables caching. */
+    @Getter
+    @Setter
+    private volatile PresignedUrlCache presignedUrlCache = new PresignedUrlCache();
+
+    /** Bandwidth limit applied to attachment uploads, shareable between clients; {@code null} means unlimited. */
+    @Getter
+    @Setter
+    private volatile BandwidthScheduler bandwidthScheduler;
+
+    /** Receives progress of attachment uploads made through this client; {@code null} disables reporting. */
+    @Getter
+    @Setter
+    private volatile TransferListener transferListener;
+
+    public DocumentApiAsyncClient(String baseUrl) {
+        this(baseUrl, HttpTransportConfig.defaults());
+    }
+
+    public DocumentApiAsyncClient(String baseUrl, HttpTransportConfig transportConfig) {
+        this.transportConfig = transportConfig != null ? transportConfig : HttpTransportConfig.defaults();
+        this.httpClient = this.transportConfig.createAsyncHttpClient();
+        this.objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        this.baseUrl = baseUrl;
+        this.activeTenant = defaultTenant;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.bodyWriterExecutor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "document-api-body-writer-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Shut down the I/O reactor and release pooled connections
+     */
+    @Override
+    public void close() {
+        bodyWriterExecutor.shutdownNow();
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            log.warn("Failed to close async HTTP transport: {}", e.getMessage());
+        }
+    }
+
+    public void clearAuth() {
+        this.authToken = null;
+        if (activeTenant != null) {
+            authTokensByTenant.remove(activeTenant);
+        }
+    }
+
+    public void clearAuth(String tenant) {
+        if (tenant == null || tenant.isBlank()) {
+            return;
+        }
+        authTokensByTenant.remove(tenant);
+        if (tenant.equals(activeTenant)) {
+            this.authToken = null;
+        }
+    }
+
+    public void clearAllAuth() {
+        this.authToken = null;
+        authTokensByTenant.clear();
+    }
+
+    public void setAuthToken(String tenant, String token) {
+        if (tenant == null || tenant.isBlank()) {
+            this.authToken = token;
+            return;
+        }
+        if (token == null || token.isBlank()) {
+            authTokensByTenant.remove(tenant);
+        } else {
+            authTokensByTenant.put(tenant, token);
+        }
+        if (tenant.equals(activeTenant)) {
+            this.authToken = token;
+        }
+    }
+
+    public void setActiveTenant(String tenant) {
+        this.activeTenant = tenant;
+        if (tenant != null && !tenant.isBlank()) {
+            this.defaultTenant = tenant;
+            this.authToken = authTokensByTenant.get(tenant);
+        }
+    }
+
+    private String effectiveToken() {
+        String effectiveToken = authToken;
+        String tenant = activeTenant;
+        if ((effectiveToken == null || effectiveToken.isBlank()) && tenant != null && !tenant.isBlank()) {
+            effectiveToken = authTokensByTenant.get(tenant);
+        }
+        return effectiveToken;
+    }
+
+    private AsyncRequestBuilder newRequest(String endpoint, HttpMethod method, String lockId) {
+        AsyncRequestBuilder builder = AsyncRequestBuilder.create(method.name())
+                .setUri(URI.create(baseUrl + endpoint))
+                .addHeader(HttpHeaders.ACCEPT, "application/json");
+        String token = effectiveToken();
+        if (token != null && !token.isBlank()) {
+            builder.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        }
+        if (lockId != null && !lockId.isBlank()) {
+            builder.addHeader(DocumentApiClient.LOCK_HEADER, lockId);
+        }
+        return builder;
+    }
+
+    private <T> CompletableFuture<T> exchange(String endpoint, HttpMethod method, Object body, Class<T> responseType,
+                                              String action) {
+        return exchange(endpoint, method, body, objectMapper.constructType(responseType), null, action);
+    }
+
+    private <T> CompletableFuture<T> exchange(String endpoint, HttpMethod method, Object body, Class<T> responseType,
+                                              String lockId, String action) {
+        return exchange(endpoint, method, body, objectMapper.constructType(responseType), lockId, action);
+    }
+
+    private <T> CompletableFuture<T> exchange(String endpoint, HttpMethod method, Object body, TypeReference<T> responseType,
+                                              String action) {
+        return exchange(endpoint, method, body, objectMapper.constructType(responseType), null, action);
+    }
+
+    private <T> CompletableFuture<T> exchange(String endpoint, HttpMethod method, Object body, JavaType responseType,
+                                              String lockId, String action) {
+        AsyncRequestBuilder request = newRequest(endpoint, method, lockId);
+        if (body != null) {
+            try {
+                request.setEntity(AsyncEntityProducers.create(objectMapper.writeValueAsBytes(body), ContentType.APPLICATION_JSON));
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return execute(request, action).thenApply(response -> readBody(response, responseType));
+    }
+
+    private CompletableFuture<SimpleHttpResponse> execute(AsyncRequestBuilder request, String action) {
+        CompletableFuture<SimpleHttpResponse> result = new CompletableFuture<>();
+        httpClient.execute(request.build(), SimpleResponseConsumer.create(), null, null, new FutureCallback<>() {
+            @Override
+            public void completed(SimpleHttpResponse response) {
+                if (response.getCode() >= 200 && response.getCode() < 300) {
+                    result.complete(response);
+                    return;
+                }
+                RestClientResponseException error = toException(response);
+                log.error("Failed to {}: {}", action, error.getResponseBodyAsString());
+                result.completeExceptionally(error);
+            }
+
+            @Override
+            public void failed(Exception ex) {
+                log.error("Failed to {}: {}", action, ex.getMessage());
+                result.completeExceptionally(ex);
+            }
+
+            @Override
+            public void cancelled() {
+                result.cancel(false);
+            }
+        });
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T readBody(SimpleHttpResponse response, JavaType responseType) {
+        if (responseType.getRawClass() == Void.class) {
+            return null;
+        }
+        byte[] bytes = response.getBodyBytes();
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (responseType.getRawClass() == String.class) {
+            return (T) new String(bytes, charsetOf(response));
+        }
+        try {
+            return objectMapper.readValue(bytes, responseType);
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private static RestClientResponseException toException(SimpleHttpResponse response) {
+        HttpHeaders headers = new HttpHeaders();
+        for (Header header : response.getHeaders()) {
+            headers.add(header.getName(), header.getValue());
+        }
+        return HttpStatusErrors.create(response.getCode(), response.getReasonPhrase(), headers,
+                response.getBodyBytes(), charsetOf(response));
+    }
+
+    private static Charset charsetOf(SimpleHttpResponse response) {
+        ContentType contentType = response.getContentType();
+        return contentType != null && contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+    }
+
+    // Authentication endpoints
+    public CompletableFuture<LoginResponse> login(LoginRequest request) {
+        return login(defaultTenant, request);
+    }
+
+    public CompletableFuture<LoginResponse> login(String tenant, LoginRequest request) {
+        String endpoint = UriComponentsBuilder
+                .fromPath("/api/auth/login")
+                .queryParam("tenant", tenant)
+                .toUriString();
+        return exchange(endpoint, HttpMethod.POST, request, LoginResponse.class, "login")
+                .thenApply(body -> rememberToken(tenant, body));
+    }
+
+    public CompletableFuture<LoginResponse> register(RegisterRequest request) {
+        return register(defaultTenant, request);
+    }
+
+    public CompletableFuture<LoginResponse> register(String tenant, RegisterRequest request) {
+        String endpoint = UriComponentsBuilder
+                .fromPath("/api/auth/register")
+                .queryParam("tenant", tenant)
+                .toUriString();
+        return exchange(endpoint, HttpMethod.POST, request, LoginResponse.class, "register")
+                .thenApply(body -> rememberToken(tenant, body));
+    }
+
+    private LoginResponse rememberToken(String tenant, LoginResponse body) {
+        if (body != null && body.getToken() != null && !body.getToken().isBlank()) {
+            setAuthToken(tenant, body.getToken());
+            setActiveTenant(tenant);
+        }
+        return body;
+    }
+
+    public CompletableFuture<List<TenantResponse>> listTenants() {
+        return exchange("/api/admin/tenants", HttpMethod.GET, null, new TypeReference<>() {
+        }, "list tenants");
+    }
+
+    // Document Class endpoints
+    public CompletableFuture<List<DocumentClassResponse>> getDocumentClasses() {
+        return exchange("/api/admin/document-classes", HttpMethod.GET, null, new TypeReference<>() {
+        }, "get document classes");
+    }
+
+    public CompletableFuture<DocumentClassResponse> getDocumentClassById(String id) {
+        return exchange("/api/admin/document-classes/" + id, HttpMethod.GET, null, DocumentClassResponse.class, "get document class");
+    }
+
+    public CompletableFuture<DocumentClassResponse> getDocumentClassByName(String name) {
+        return exchange("/api/admin/document-classes/name/" + name, HttpMethod.GET, null, DocumentClassResponse.class, "get document class");
+    }
+
+    public CompletableFuture<DocumentClassResponse> createDocumentClass(DocumentClassRequest request) {
+        return exchange("/api/admin/document-classes", HttpMethod.POST, request, DocumentClassResponse.class, "create document class");
+    }
+
+    public CompletableFuture<DocumentClassResponse> updateDocumentClass(String id, DocumentClassRequest request) {
+        return exchange("/api/admin/document-classes/" + id, HttpMethod.PUT, request, DocumentClassResponse.class, "update document class");
+    }
+
+    public CompletableFuture<Void> deleteDocumentClass(String id) {
+        return exchange("/api/admin/document-classes/" + id, HttpMethod.DELETE, null, Void.class, "delete document class");
+    }
+
+    // User endpoints
+    public CompletableFuture<List<UserResponse>> getUsers() {
+        return exchange("/api/admin/users", HttpMethod.GET, null, new TypeReference<>() {
+        }, "get users");
+    }
+
+    public CompletableFuture<UserResponse> createUser(AdminCreateUserRequest request) {
+        return exchange("/api/admin/users", HttpMethod.POST, request, UserResponse.class, "create user");
+    }
+
+    public CompletableFuture<UserResponse> getUserByUsername(String username) {
+        return exchange("/api/admin/users/username/" + username, HttpMethod.GET, null, UserResponse.class, "get user by username");
+    }
+
+    public CompletableFuture<Void> deleteUser(String userId) {
+        return exchange("/api/admin/users/" + userId, HttpMethod.DELETE, null, Void.class, "delete user");
+    }
+
+    public CompletableFuture<UserResponse> updateUserPrivilegeSet(String userId, String privilegeSetId) {
+        String endpoint = UriComponentsBuilder
+                .fromPath("/api/admin/users/{userId}/privilege-set")
+                .queryParam("privilegeSetId", privilegeSetId)
+                .buildAndExpand(userId)
+                .toUriString();
+        return exchange(endpoint, HttpMethod.PATCH, null, UserResponse.class, "update user privilege set");
+    }
+
+    // Group endpoints
+    public CompletableFuture<List<GroupResponse>> getGroups() {
+        return exchange("/api/admin/groups", HttpMethod.GET, null, new TypeReference<>() {
+        }, "get groups");
+    }
+
+    public CompletableFuture<GroupResponse> createGroup(GroupRequest request) {
+        return exchange("/api/admin/groups", HttpMethod.POST, request, GroupResponse.class, "create group");
+    }
+
+    public CompletableFuture<GroupResponse> getGroupByName(String name) {
+        return exchange("/api/admin/groups/name/" + name, HttpMethod.GET, null, GroupResponse.class, "get group by name");
+    }
+
+    public CompletableFuture<Void> deleteGroup(String groupId) {
+        return exchange("/api/admin/groups/" + groupId, HttpMethod.DELETE, null, Void.class, "delete group");
+    }
+
+    public CompletableFuture<GroupResponse> addUsersToGroup(String groupId, List<String> userIds) {
+        return exchange("/api/admin/groups/" + groupId + "/users", HttpMethod.PATCH, userIds, GroupResponse.class, "add users to group");
+    }
+
+    // Privilege set endpoints
+    public CompletableFuture<List<PrivilegeSetResponse>> getPrivilegeSets() {
+        return exchange("/api/admin/privilege-sets", HttpMethod.GET, null, new TypeReference<>() {
+        }, "get privilege sets");
+    }
+
+    public CompletableFuture<PrivilegeSetResponse> getPrivilegeSetByName(String name) {
+        return exchange("/api/admin/privilege-sets/name/" + name, HttpMethod.GET, null, PrivilegeSetResponse.class, "get privilege set by name");
+    }
+
+    public CompletableFuture<PrivilegeSetResponse> createPrivilegeSet(PrivilegeSetRequest request) {
+        return exchange("/api/admin/privilege-sets", HttpMethod.POST, request, PrivilegeSetResponse.class, "create privilege set");
+    }
+
+    public CompletableFuture<PrivilegeSetResponse> updatePrivilegeSet(String privilegeSetId, PrivilegeSetRequest request) {
+        return exchange("/api/admin/privilege-sets/" + privilegeSetId, HttpMethod.PUT, request, PrivilegeSetResponse.class, "update privilege set");
+    }
+
+    public CompletableFuture<Void> deletePrivilegeSet(String privilegeSetId) {
+        return exchange("/api/admin/privilege-sets/" + privilegeSetId, HttpMethod.DELETE, null, Void.class, "delete privilege set");
+    }
+
+    // ACL endpoints
+    public CompletableFuture<List<AccessControlListResponse>> getAcls() {
+        return exchange("/api/admin/acls", HttpMethod.GET, null, new TypeReference<>() {
+        }, "get ACLs");
+    }
+
+    public CompletableFuture<AccessControlListResponse> getAclByName(String name) {
+        return exchange("/api/admin/acls/name/" + name, HttpMethod.GET, null, AccessControlListResponse.class, "get ACL by name");
+    }
+
+    public CompletableFuture<AccessControlListResponse> createAcl(AccessControlListRequest request) {
+        return exchange("/api/admin/acls", HttpMethod.POST, request, AccessControlListResponse.class, "create ACL");
+    }
+
+    public CompletableFuture<AccessControlListResponse> updateAcl(String aclId, AccessControlListRequest request) {
+        return exchange("/api/admin/acls/" + aclId, HttpMethod.PUT, request, AccessControlListResponse.class, "update ACL");
+    }
+
+    public CompletableFuture<Void> deleteAcl(String aclId) {
+        return exchange("/api/admin/acls/" + aclId, HttpMethod.DELETE, null, Void.class, "delete ACL");
+    }
+
+    // Privilege endpoints
+    public CompletableFuture<List<PrivilegeResponse>> getPrivileges() {
+        return exchange("/api/admin/privileges", HttpMethod.GET, null, new TypeReference<>() {
+        }, "get privileges");
+    }
+
+    public CompletableFuture<PrivilegeResponse> createPrivilege(PrivilegeRequest request) {
+        return exchange("/api/admin/privileges", HttpMethod.POST, request, PrivilegeResponse.class, "create privilege");
+    }
+
+    public CompletableFuture<PrivilegeResponse> updatePrivilege(String id, PrivilegeRequest request) {
+        return exchange("/api/admin/privileges/" + id, HttpMethod.PUT, request, PrivilegeResponse.class, "update privilege");
+    }
+
+    public CompletableFuture<Void> deletePrivilege(String id) {
+        return exchange("/api/admin/privileges/" + id, HttpMethod.DELETE, null, Void.class, "delete privilege");
+    }
+
+    // Document endpoints
+    public CompletableFuture<List<DocumentResponse>> getDocuments() {
+        String scope = urlScope();
+        CompletableFuture<List<DocumentResponse>> documents = exchange("/api/documents", HttpMethod.GET, null,
+                new TypeReference<>() {
+                }, "get documents");
+        return documents.thenApply(list -> cacheUrls(scope, list));
+    }
+
+    public CompletableFuture<DocumentResponse> getDocument(String id) {
+        String scope = urlScope();
+        return exchange("/api/documents/" + id, HttpMethod.GET, null, DocumentResponse.class, "get document")
+                .thenApply(document -> cacheUrls(scope, document));
+    }
+
+    public CompletableFuture<DocumentResponse> createDocument(DocumentRequest request) {
+        String scope = urlScope();
+        return exchange("/api/documents", HttpMethod.POST, request, DocumentResponse.class, "create document")
+                .thenApply(document -> cacheUrls(scope, document));
+    }
+
+    public CompletableFuture<DocumentLockResponse> lockDocument(String id, Integer leaseSeconds) {
+        DocumentLockRequest request = new DocumentLockRequest();
+        request.setLeaseSeconds(leaseSeconds);
+        return exchange("/api/documents/" + id + "/lock", HttpMethod.POST, request, DocumentLockResponse.class, "lock document");
+    }
+
+    public CompletableFuture<DocumentLockResponse> renewLock(String id, String lockId, Integer leaseSeconds) {
+        DocumentLockRequest request = new DocumentLockRequest();
+        request.setLeaseSeconds(leaseSeconds);
+        return exchange("/api/documents/" + id + "/lock/renew", HttpMethod.POST, request, DocumentLockResponse.class, lockId, "renew lock");
+    }
+
+    public CompletableFuture<Void> unlockDocument(String id, String lockId) {
+        return exchange("/api/documents/" + id + "/unlock", HttpMethod.POST, null, Void.class, lockId, "unlock document");
+    }
+
+    public CompletableFuture<List<DocumentAttachmentDto>> uploadAttachments(String id, List<File> files) {
+        return uploadAttachments(id, files, null);
+    }
+
+    public CompletableFuture<List<DocumentAttachmentDto>> uploadAttachments(String id, List<File> files, String lockId) {
+        List<AttachmentSource> sources = null;
+        if (files != null) {
+            sources = new ArrayList<>(files.size());
+            for (File file : files) {
+                sources.add(file != null ? AttachmentSource.of(file) : null);
+            }
+        }
+        return uploadAttachmentSources(id, sources, lockId);
+    }
+
+    public CompletableFuture<List<DocumentAttachmentDto>> uploadAttachmentSources(String id, List<AttachmentSource> sources) {
+        return uploadAttachmentSources(id, sources, null);
+    }
+
+    /**
+     * Upload attachments in one multipart request; stream sources are read while the body is being sent
+     */
+    public CompletableFuture<List<DocumentAttachmentDto>> uploadAttachmentSources(String id, List<AttachmentSource> sources, String lockId) {
+        if (id == null || id.isBlank()) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Document id cannot be null/blank"));
+        }
+        if (sources == null || sources.isEmpty()) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Files list cannot be null/empty"));
+        }
+
+        for (AttachmentSource source : sources) {
+            if (source != null && source.getPath() != null && !Files.isRegularFile(source.getPath())) {
+                return CompletableFuture.failedFuture(
+                        new IllegalArgumentException("File does not exist or is not a regular file: " + source.getPath()));
+            }
+        }
+
+        MultipartFormDataEncoder encoder = new MultipartFormDataEncoder("files", sources);
+        BandwidthScheduler scheduler = bandwidthScheduler;
+        BandwidthScheduler.Throttle throttle = scheduler != null ? scheduler.forTenant(activeTenant) : null;
+        TransferTracker tracker = TransferTracker.start(transferListener, TransferProgress.Direction.UPLOAD, id,
+                DocumentApiClient.batchName(sources), encoder.contentLength(), 1);
+        AsyncEntityProducer producer = new AbstractClassicEntityProducer(
+                UPLOAD_BUFFER_SIZE, ContentType.parse(encoder.contentType()), bodyWriterExecutor) {
+            @Override
+            protected void produceData(ContentType contentType, OutputStream outputStream) throws IOException {
+                encoder.writeTo(tracker.wrap(throttle != null ? throttle.wrap(outputStream) : outputStream));
+            }
+        };
+
+        AsyncRequestBuilder request = newRequest("/api/documents/" + id + "/attachments/batch", HttpMethod.POST, lockId)
+                .setEntity(producer);
+        JavaType responseType = objectMapper.getTypeFactory().constructCollectionType(List.class, DocumentAttachmentDto.class);
+        long startNanos = System.nanoTime();
+        return execute(request, "upload attachments to document " + id)
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        tracker.failed(unwrap(error));
+                    } else {
+                        tracker.partCompleted(1, encoder.contentLength(), System.nanoTime() - startNanos);
+                        tracker.completed();
+                    }
+                })
+                .<List<DocumentAttachmentDto>>thenApply(response -> readBody(response, responseType))
+                .thenApply(body -> body != null ? body : new ArrayList<DocumentAttachmentDto>())
+                .exceptionally(e -> {
+                    throw new CompletionException(new RuntimeException("Failed to upload attachments", unwrap(e)));
+                });
+    }
+
+    public CompletableFuture<List<DocumentDto>> getDocumentAttachments(String documentId) {
+        String scope = urlScope();
+        CompletableFuture<List<DocumentDto>> attachments = exchange("/api/documents/" + documentId + "/attachments",
+                HttpMethod.GET, null, new TypeReference<>() {
+                }, "get document attachments");
+        return attachments.thenApply(list -> {
+            PresignedUrlCache cache = presignedUrlCache;
+            if (cache != null) {
+                cache.putAll(scope, documentId, list);
+            }
+            return list;
+        });
+    }
+
+    /**
+     * Cache the presigned URLs of the attachments embedded in documents
+     */
+    private List<DocumentResponse> cacheUrls(String scope, List<DocumentResponse> documents) {
+        if (documents != null && presignedUrlCache != null) {
+            documents.forEach(document -> cacheUrls(scope, document));
+        }
+        return documents;
+    }
+
+    private DocumentResponse cacheUrls(String scope, DocumentResponse document) {
+        PresignedUrlCache cache = presignedUrlCache;
+        if (cache != null && document != null) {
+            cache.putAll(scope, document.getId(), document.getDocuments());
+        }
+        return document;
+    }
+
+    /**
+     * Scope of the download URLs cached for a call: the token it is made with, else the active tenant (see
+     * {@link PresignedUrlCache#scopeOf}). Taken before the call starts, so that a tenant switch while it runs does
+     * not file its URLs under the new tenant.
+     */
+    private String urlScope() {
+        return PresignedUrlCache.scopeOf(activeTenant, effectiveToken());
+    }
+
+    public CompletableFuture<MultipartUploadInitResponse> initMultipartUpload(String documentId, MultipartUploadInitRequest request, String lockId) {
+        return exchange("/api/documents/" + documentId + "/attachments/multipart", HttpMethod.POST, request,
+                MultipartUploadInitResponse.class, lockId, "init multipart upload");
+    }
+
+    public CompletableFuture<MultipartUploadStatusResponse> getMultipartUploadStatus(String documentId, String sessionId) {
+        return exchange("/api/documents/" + documentId + "/attachments/multipart/" + sessionId, HttpMethod.GET, null,
+                MultipartUploadStatusResponse.class, "get multipart upload status");
+    }
+
+    public CompletableFuture<MultipartPresignPartResponse> presignMultipartUploadPart(String documentId, String sessionId, int partNumber) {
+        String endpoint = UriComponentsBuilder
+                .fromPath("/api/documents/{documentId}/attachments/multipart/{sessionId}/presign-part")
+                .queryParam("partNumber", partNumber)
+                .buildAndExpand(documentId, sessionId)
+                .toUriString();
+        return exchange(endpoint, HttpMethod.POST, null, MultipartPresignPartResponse.class, "presign multipart upload part");
+    }
+
+    public CompletableFuture<MultipartUploadCompleteResponse> completeMultipartUpload(String documentId,
+                                                                                    String sessionId,
+                                                                                    MultipartUploadCompleteRequest request,
+                                                                                    String lockId) {
+        return exchange("/api/documents/" + documentId + "/attachments/multipart/" + sessionId + "/complete", HttpMethod.POST,
+                request, MultipartUploadCompleteResponse.class, lockId, "complete multipart upload");
+    }
+
+    public CompletableFuture<Void> abortMultipartUpload(String documentId, String sessionId, String lockId) {
+        return exchange("/api/documents/" + documentId + "/attachments/multipart/" + sessionId + "/abort", HttpMethod.POST,
+                null, Void.class, lockId, "abort multipart upload");
+    }
+
+    public CompletableFuture<String> getAttachmentDownloadUrl(String documentId, String attachmentId) {
+        PresignedUrlCache cache = presignedUrlCache;
+        String scope = urlScope();
+        String cached = cache != null ? cache.get(scope, documentId, attachmentId) : null;
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return exchange("/api/documents/" + documentId + "/attachments/" + attachmentId + "/download", HttpMethod.GET, null,
+                String.class, "get attachment download URL")
+                .thenApply(body -> {
+                    String url = body != null ? body.trim() : null;
+                    if (cache != null && url != null) {
+                        cache.put(scope, documentId, attachmentId, url, null);
+                    }
+                    return url;
+                });
+    }
+
+    public CompletableFuture<DocumentResponse> updateDocument(String id, DocumentRequest request) {
+        return updateDocument(id, request, null);
+    }
+
+    public CompletableFuture<DocumentResponse> updateDocument(String id, DocumentRequest request, String lockId) {
+        String scope = urlScope();
+        return exchange("/api/documents/" + id, HttpMethod.PUT, request, DocumentResponse.class, lockId, "update document")
+                .thenApply(document -> cacheUrls(scope, document));
+    }
+
+    public CompletableFuture<Void> deleteDocument(String id) {
+        return deleteDocument(id, null);
+    }
+
+    public CompletableFuture<Void> deleteDocument(String id, String lockId) {
+        return exchange("/api/documents/" + id, HttpMethod.DELETE, null, Void.class, lockId, "delete document")
+                .thenApply(ignored -> {
+                    PresignedUrlCache cache = presignedUrlCache;
+                    if (cache != null) {
+                        cache.invalidateDocument(id);
+                    }
+                    return ignored;
+                });
+    }
+
+    /**
+     * Search for documents using the document search endpoint
+     * @param searchRequest the search criteria including document class, filters, pagination, and sorting
+     * @return future list of documents matching the search criteria
+     */
+    public CompletableFuture<List<DocumentResponse>> searchDocuments(DocumentSearchRequest searchRequest) {
+        String scope = urlScope();
+        CompletableFuture<List<DocumentResponse>> documents = exchange("/api/documents/search", HttpMethod.POST, searchRequest,
+                new TypeReference<>() {
+                }, "search documents");
+        return documents.thenApply(list -> cacheUrls(scope, list));
+    }
+
+    public CompletableFuture<List<DocumentResponse>> searchDocuments(String documentClassId, Map<String, Object> attributeFilters) {
+        DocumentSearchRequest searchRequest = new DocumentSearchRequest();
+        searchRequest.setDocumentClassId(documentClassId);
+        searchRequest.setAttributeFilters(attributeFilters);
+        return searchDocuments(searchRequest);
+    }
+
+    public CompletableFuture<List<DocumentResponse>> searchDocuments(String documentClassId, Map<String, Object> attributeFilters,
+                                                                   Integer page, Integer size, String sortBy, String sortDirection) {
+        DocumentSearchRequest searchRequest = new DocumentSearchRequest();
+        searchRequest.setDocumentClassId(documentClassId);
+        searchRequest.setAttributeFilters(attributeFilters);
+        searchRequest.setPage(page);
+        searchRequest.setSize(size);
+        searchRequest.setSortBy(sortBy);
+        searchRequest.setSortDirection(sortDirection);
+        return searchDocuments(searchRequest);
+    }
+
+    public String getBaseApiUrl() {
+        return baseUrl;
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+}
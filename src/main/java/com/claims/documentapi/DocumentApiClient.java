@@ -1,70 +1,266 @@
 package com.claims.documentapi;
 
 import com.claims.documentapi.dto.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.core.io.FileSystemResource;
 import org.springframework.http.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.stereotype.Service;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.util.UriComponentsBuilder;
-
+import org.apache.hc.client5.http.classic.HttpClient;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.http.io.support.ClassicRequestBuilder;
+import org.apache.hc.core5.util.Timeout;
+
+import java.io.Closeable;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * Client library for Document Management API
  * Provides type-safe API calls with built-in authentication and error handling
+ * <p>
+ * The tenant, token and lock set on this client are shared by every caller. To serve concurrent requests for
+ * different tenants from one instance, make the calls through scoped clients ({@link #withContext},
+ * {@link #forTenant}): each carries an immutable {@link RequestContext} and shares this client's connection pool,
+ * token store and caches.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
-public class DocumentApiClient {
+public class DocumentApiClient implements AutoCloseable {
     
     private final RestTemplate restTemplate;
     private String baseUrl;
+
+    @Getter
+    private HttpTransportConfig transportConfig;
+    private CloseableHttpClient httpClient;
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
     /**
      * -- SETTER --
      *  Set authentication token for subsequent requests
      */
     @Setter
-    private String authToken;
+    private volatile String authToken;
+
+    /** Shared with scoped clients. */
+    private Map<String, String> authTokensByTenant = new ConcurrentHashMap<>();
+
+    private volatile String activeTenant;
 
-    private final Map<String, String> authTokensByTenant = new ConcurrentHashMap<>();
+    @Setter
+    @Getter
+    private volatile String defaultTenant = "claims";
+
+    /** Refreshes stored tokens ahead of expiry; shared with scoped clients. */
+    @Getter
+    private volatile TokenRefresher tokenRefresher;
+
+    /** Logs in again when a call is rejected with 401; shared with scoped clients, null when disabled. */
+    private volatile Reauthenticator reauthenticator;
+
+    /** Client a scoped client was created from; null for a client that owns its transport. */
+    private DocumentApiClient owner;
+
+    /** Fixed context of a scoped client; null for a client that uses its own tenant and token fields. */
+    @Getter
+    private RequestContext context;
+
+    /** Deadline of the call being made on this thread, read when the HTTP request is created. */
+    private static final ThreadLocal<Instant> CALL_DEADLINE = new ThreadLocal<>();
+
+    /**
+     * Presigned download URLs seen in attachment listings or fetched individually; {@code null} disables caching
+     */
+    @Getter
+    @Setter
+    private PresignedUrlCache presignedUrlCache = new PresignedUrlCache();
 
+    /**
+     * Bandwidth limit applied to attachment transfers, shareable between clients; {@code null} means unlimited
+     */
     @Getter
     @Setter
-    private String activeTenant;
+    private BandwidthScheduler bandwidthScheduler;
 
+    /**
+     * Per-tenant limit on concurrent API calls, shareable between clients; {@code null} means unlimited
+     */
+    @Getter
     @Setter
+    private volatile TenantBulkhead bulkhead;
+
+    /**
+     * Receives progress of attachment uploads and downloads made through this client; {@code null} disables reporting
+     */
     @Getter
-    private String defaultTenant = "claims";
+    @Setter
+    private volatile TransferListener transferListener;
 
     public static final String LOCK_HEADER = "X-Document-Lock-Id";
+
+    private static final String AUTH_PATH = "/api/auth/";
     
     public DocumentApiClient(String baseUrl) {
-        this.restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory());
+        this(baseUrl, HttpTransportConfig.defaults());
+    }
+
+    /**
+     * Create a client backed by a pooled HttpClient built from the given transport settings
+     */
+    public DocumentApiClient(String baseUrl, HttpTransportConfig transportConfig) {
+        this.transportConfig = transportConfig != null ? transportConfig : HttpTransportConfig.defaults();
+        this.httpClient = this.transportConfig.createHttpClient();
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        requestFactory.setHttpContextFactory((method, uri) -> deadlineHttpContext(CALL_DEADLINE.get()));
+        this.restTemplate = new RestTemplate(requestFactory);
         this.baseUrl = baseUrl;
         this.activeTenant = defaultTenant;
     }
 
+    /**
+     * Scoped client sharing the transport, token store and caches of {@code parent}; its other settings are taken
+     * from {@code parent} as they are at this point
+     */
+    private DocumentApiClient(DocumentApiClient parent, RequestContext context) {
+        this.restTemplate = parent.restTemplate;
+        this.baseUrl = parent.baseUrl;
+        this.transportConfig = parent.transportConfig;
+        this.httpClient = parent.httpClient;
+        this.authTokensByTenant = parent.authTokensByTenant;
+        this.defaultTenant = parent.defaultTenant;
+        this.presignedUrlCache = parent.presignedUrlCache;
+        this.bandwidthScheduler = parent.bandwidthScheduler;
+        this.bulkhead = parent.bulkhead;
+        this.transferListener = parent.transferListener;
+        this.tokenRefresher = parent.tokenRefresher;
+        this.reauthenticator = parent.reauthenticator;
+        this.owner = parent.owner != null ? parent.owner : parent;
+        this.context = context;
+    }
+
+    /**
+     * A client making every call with {@code context}. It is cheap to create and needs no closing; it stays
+     * usable only while this client is open. Explicit lock ids passed to a call take precedence over the
+     * context's.
+     */
+    public DocumentApiClient withContext(RequestContext context) {
+        if (context == null) {
+            throw new IllegalArgumentException("Context cannot be null");
+        }
+        return new DocumentApiClient(this, context);
+    }
+
+    /**
+     * A client making every call for {@code tenant}, with the token this client holds for it
+     */
+    public DocumentApiClient forTenant(String tenant) {
+        if (tenant == null || tenant.isBlank()) {
+            throw new IllegalArgumentException("Tenant cannot be null/blank");
+        }
+        return withContext(RequestContext.forTenant(tenant));
+    }
+
+    /**
+     * Keep the token of every tenant logged in through this client (or set with {@link #setAuthToken(String, String)})
+     * fresh by logging in again in the background shortly before it expires. Scoped clients created afterwards share
+     * the refresher; it stops when this client is closed.
+     */
+    public synchronized TokenRefresher enableTokenRefresh(CredentialProvider credentials, TokenRefreshOptions options) {
+        if (context != null) {
+            throw new IllegalStateException("Enable token refresh on the client that owns the transport");
+        }
+        if (tokenRefresher != null) {
+            tokenRefresher.close();
+        }
+        TokenRefresher refresher = new TokenRefresher(this, credentials, options);
+        authTokensByTenant.forEach((tenant, token) -> refresher.tokenIssued(tenant, token, null));
+        tokenRefresher = refresher;
+        return refresher;
+    }
+
+    public TokenRefresher enableTokenRefresh(CredentialProvider credentials) {
+        return enableTokenRefresh(credentials, TokenRefreshOptions.defaults());
+    }
+
+    /**
+     * When a call is rejected with 401, log in again with the tenant's credentials and replay the call with the new
+     * token. Calls rejected together for one tenant share a single login: the others wait for it instead of logging
+     * in themselves. Calls made with a token fixed by their {@link RequestContext}, calls to the auth endpoints and
+     * batch uploads of stream sources are not replayed. Scoped clients created afterwards share the setting.
+     * @param credentials null disables re-authentication
+     */
+    public void enableReauthentication(CredentialProvider credentials) {
+        if (context != null) {
+            throw new IllegalStateException("Enable re-authentication on the client that owns the transport");
+        }
+        this.reauthenticator = credentials != null ? new Reauthenticator(this, credentials) : null;
+    }
+
+    /**
+     * Release pooled connections held by this client; a scoped client owns none
+     */
+    @Override
+    public void close() {
+        if (httpClient == null || context != null) {
+            return;
+        }
+        TokenRefresher refresher = tokenRefresher;
+        if (refresher != null) {
+            refresher.close();
+        }
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            log.warn("Failed to close HTTP transport: {}", e.getMessage());
+        }
+    }
+
     /**
      * Clear authentication token
      */
     public void clearAuth() {
         this.authToken = null;
-        if (activeTenant != null) {
-            authTokensByTenant.remove(activeTenant);
+        String tenant = getActiveTenant();
+        if (tenant != null) {
+            authTokensByTenant.remove(tenant);
+            cancelRefresh(tenant);
         }
     }
 
@@ -73,6 +269,7 @@ public class DocumentApiClient {
             return;
         }
         authTokensByTenant.remove(tenant);
+        cancelRefresh(tenant);
         if (tenant.equals(activeTenant)) {
             this.authToken = null;
         }
@@ -81,9 +278,21 @@ public class DocumentApiClient {
     public void clearAllAuth() {
         this.authToken = null;
         authTokensByTenant.clear();
+        TokenRefresher refresher = tokenRefresher;
+        if (refresher != null) {
+            refresher.cancelAll();
+        }
     }
 
     public void setAuthToken(String tenant, String token) {
+        storeToken(tenant, token, null);
+    }
+
+    /**
+     * Store a tenant's token and hand it to the refresher
+     * @param expiresInSeconds lifetime reported by the server, or null
+     */
+    private void storeToken(String tenant, String token, Long expiresInSeconds) {
         if (tenant == null || tenant.isBlank()) {
             this.authToken = token;
             return;
@@ -93,12 +302,42 @@ public class DocumentApiClient {
         } else {
             authTokensByTenant.put(tenant, token);
         }
-        if (tenant.equals(activeTenant)) {
-            this.authToken = token;
+        // A token stored through a scoped client also replaces the owner's current token for that tenant
+        DocumentApiClient unscoped = owner != null ? owner : this;
+        if (tenant.equals(unscoped.activeTenant)) {
+            unscoped.authToken = token;
+        }
+        TokenRefresher refresher = tokenRefresher;
+        if (refresher != null) {
+            refresher.tokenIssued(tenant, token, expiresInSeconds);
+        }
+    }
+
+    /**
+     * Token currently held for the tenant
+     */
+    String storedToken(String tenant) {
+        return tenant != null ? authTokensByTenant.get(tenant) : null;
+    }
+
+    private void cancelRefresh(String tenant) {
+        TokenRefresher refresher = tokenRefresher;
+        if (refresher != null) {
+            refresher.cancel(tenant);
         }
     }
 
+    /**
+     * Tenant the calls are made for: the context's tenant on a scoped client
+     */
+    public String getActiveTenant() {
+        return context != null ? context.getTenant() : activeTenant;
+    }
+
     public void setActiveTenant(String tenant) {
+        if (context != null) {
+            throw new IllegalStateException("The tenant of a scoped client is fixed by its context");
+        }
         this.activeTenant = tenant;
         if (tenant != null && !tenant.isBlank()) {
             this.defaultTenant = tenant;
@@ -111,24 +350,151 @@ public class DocumentApiClient {
     }
 
     private HttpHeaders createHeaders(String lockId) {
+        return createHeaders(lockId, effectiveToken());
+    }
+
+    private HttpHeaders createHeaders(String lockId, String effectiveToken) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
-        String effectiveToken = authToken;
-        if ((effectiveToken == null || effectiveToken.isBlank()) && activeTenant != null && !activeTenant.isBlank()) {
-            effectiveToken = authTokensByTenant.get(activeTenant);
-        }
         if (effectiveToken != null && !effectiveToken.isBlank()) {
             headers.setBearerAuth(effectiveToken);
         }
-        if (lockId != null && !lockId.isBlank()) {
-            headers.set(LOCK_HEADER, lockId);
+        String effectiveLockId = effectiveLockId(lockId);
+        if (effectiveLockId != null && !effectiveLockId.isBlank()) {
+            headers.set(LOCK_HEADER, effectiveLockId);
         }
         return headers;
     }
+
+    private String effectiveToken() {
+        RequestContext scoped = context;
+        if (scoped != null) {
+            if (scoped.getToken() != null) {
+                return scoped.getToken();
+            }
+            return scoped.getTenant() != null ? authTokensByTenant.get(scoped.getTenant()) : null;
+        }
+        String effectiveToken = authToken;
+        String tenant = activeTenant;
+        if ((effectiveToken == null || effectiveToken.isBlank()) && tenant != null && !tenant.isBlank()) {
+            effectiveToken = authTokensByTenant.get(tenant);
+        }
+        return effectiveToken;
+    }
+
+    private String effectiveLockId(String lockId) {
+        if ((lockId == null || lockId.isBlank()) && context != null) {
+            return context.getLockId();
+        }
+        return lockId;
+    }
+
+    /**
+     * Run a RestTemplate call in the tenant's bulkhead and under the context's deadline: refuse to start once the
+     * deadline has passed, and cap the wait for a slot and for the response at the time left
+     */
+    private <T> T send(Supplier<T> call) {
+        Instant deadline = context != null ? context.getDeadline() : null;
+        if (deadline != null) {
+            requireBeforeDeadline(deadline);
+        }
+        TenantBulkhead.Permit permit = enterBulkhead(deadline);
+        try {
+            if (deadline == null) {
+                return call.get();
+            }
+            requireBeforeDeadline(deadline);
+            CALL_DEADLINE.set(deadline);
+            try {
+                return call.get();
+            } finally {
+                CALL_DEADLINE.remove();
+            }
+        } finally {
+            if (permit != null) {
+                permit.close();
+            }
+        }
+    }
+
+    /**
+     * Take a slot in the bulkhead of the tenant the call is made for
+     * @return null without a bulkhead
+     */
+    private TenantBulkhead.Permit enterBulkhead(Instant deadline) {
+        TenantBulkhead compartments = bulkhead;
+        if (compartments == null) {
+            return null;
+        }
+        try {
+            return compartments.acquire(getActiveTenant(), deadline != null ? Duration.between(Instant.now(), deadline) : null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResourceAccessException("Interrupted while waiting for a free slot of tenant " + getActiveTenant());
+        }
+    }
+
+    private static void requireBeforeDeadline(Instant deadline) {
+        if (!Instant.now().isBefore(deadline)) {
+            throw new ResourceAccessException("Request deadline " + deadline + " has passed");
+        }
+    }
+
+    private HttpClientContext deadlineHttpContext(Instant deadline) {
+        if (deadline == null || transportConfig == null) {
+            return null;
+        }
+        RequestConfig defaults = transportConfig.requestConfig();
+        long remainingMillis = Math.max(1, Duration.between(Instant.now(), deadline).toMillis());
+        long configuredMillis = defaults.getResponseTimeout() != null ? defaults.getResponseTimeout().toMilliseconds() : 0;
+        HttpClientContext httpContext = HttpClientContext.create();
+        httpContext.setRequestConfig(RequestConfig.copy(defaults)
+                .setResponseTimeout(Timeout.ofMilliseconds(configuredMillis > 0 ? Math.min(configuredMillis, remainingMillis) : remainingMillis))
+                .build());
+        return httpContext;
+    }
     
+    /**
+     * Make a call with the current token and, if the token is rejected with 401 and re-authentication is enabled,
+     * replay it once with the token of a new login
+     * @param call makes the call with the given bearer token
+     */
+    private <T> T authenticated(String endpoint, Function<String, T> call) {
+        String token = effectiveToken();
+        try {
+            return call.apply(token);
+        } catch (HttpClientErrorException.Unauthorized e) {
+            if (endpoint.startsWith(AUTH_PATH)) {
+                throw e;
+            }
+            return call.apply(renewToken(token, e));
+        }
+    }
+
+    /**
+     * New token for the tenant whose token was rejected, or the rejection rethrown when there is none
+     */
+    private String renewToken(String rejectedToken, HttpClientErrorException.Unauthorized rejection) {
+        Reauthenticator reauth = reauthenticator;
+        String tenant = getActiveTenant();
+        if (reauth == null || tenant == null || tenant.isBlank() || (context != null && context.getToken() != null)) {
+            throw rejection;
+        }
+        String renewed;
+        try {
+            renewed = reauth.reauthenticate(tenant, rejectedToken, context != null ? context.getDeadline() : null);
+        } catch (RuntimeException failure) {
+            rejection.addSuppressed(failure);
+            throw rejection;
+        }
+        if (renewed == null || renewed.isBlank() || renewed.equals(rejectedToken)) {
+            throw rejection;
+        }
+        return renewed;
+    }
+
     private <T> ResponseEntity<T> exchange(String endpoint, HttpMethod method, Object body, ParameterizedTypeReference<T> responseType) {
-        HttpEntity<?> entity = new HttpEntity<>(body, createHeaders());
-        return restTemplate.exchange(baseUrl + endpoint, method, entity, responseType);
+        return exchange(endpoint, method, body, responseType, null);
     }
 
     private <T> ResponseEntity<T> exchange(String endpoint,
@@ -136,13 +502,14 @@ public class DocumentApiClient {
                                           Object body,
                                           ParameterizedTypeReference<T> responseType,
                                           String lockId) {
-        HttpEntity<?> entity = new HttpEntity<>(body, createHeaders(lockId));
-        return restTemplate.exchange(baseUrl + endpoint, method, entity, responseType);
+        return authenticated(endpoint, token -> {
+            HttpEntity<?> entity = new HttpEntity<>(body, createHeaders(lockId, token));
+            return send(() -> restTemplate.exchange(baseUrl + endpoint, method, entity, responseType));
+        });
     }
     
     private <T> ResponseEntity<T> exchange(String endpoint, HttpMethod method, Object body, Class<T> responseType) {
-        HttpEntity<?> entity = new HttpEntity<>(body, createHeaders());
-        return restTemplate.exchange(baseUrl + endpoint, method, entity, responseType);
+        return exchange(endpoint, method, body, responseType, null);
     }
 
     private <T> ResponseEntity<T> exchange(String endpoint,
@@ -150,13 +517,100 @@ public class DocumentApiClient {
                                           Object body,
                                           Class<T> responseType,
                                           String lockId) {
-        HttpEntity<?> entity = new HttpEntity<>(body, createHeaders(lockId));
-        return restTemplate.exchange(baseUrl + endpoint, method, entity, responseType);
+        return authenticated(endpoint, token -> {
+            HttpEntity<?> entity = new HttpEntity<>(body, createHeaders(lockId, token));
+            return send(() -> restTemplate.exchange(baseUrl + endpoint, method, entity, responseType));
+        });
+    }
+    
+    /**
+     * Send a request outside RestTemplate and decode the JSON array response lazily.
+     * The caller owns the returned iterator and must close it to release the connection.
+     */
+    private <T> JsonArrayIterator<T> openJsonArray(String endpoint, HttpMethod method, Object body, Class<T> elementType) throws IOException {
+        try {
+            return authenticated(endpoint, token -> {
+                try {
+                    return openJsonArray(endpoint, method, body, elementType, token);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private <T> JsonArrayIterator<T> openJsonArray(String endpoint, HttpMethod method, Object body, Class<T> elementType,
+                                                   String token) throws IOException {
+        ClassicRequestBuilder builder = ClassicRequestBuilder.create(method.name()).setUri(baseUrl + endpoint);
+        createHeaders(null, token).forEach((name, values) -> values.forEach(value -> builder.addHeader(name, value)));
+        builder.setHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
+        if (body != null) {
+            builder.setEntity(new ByteArrayEntity(objectMapper.writeValueAsBytes(body), ContentType.APPLICATION_JSON));
+        }
+
+        Instant deadline = context != null ? context.getDeadline() : null;
+        if (deadline != null) {
+            requireBeforeDeadline(deadline);
+        }
+        // The slot is held until the iterator is closed, as long as the connection is
+        TenantBulkhead.Permit permit = enterBulkhead(deadline);
+        ClassicHttpResponse response;
+        try {
+            response = streamingHttpClient().executeOpen(null, builder.build(), deadlineHttpContext(deadline));
+        } catch (IOException | RuntimeException e) {
+            if (permit != null) {
+                permit.close();
+            }
+            throw e;
+        }
+        Closeable resource = permit == null ? response : () -> {
+            try {
+                response.close();
+            } finally {
+                permit.close();
+            }
+        };
+        try {
+            if (response.getCode() < 200 || response.getCode() >= 300) {
+                throw toException(response);
+            }
+            InputStream content = response.getEntity() != null ? response.getEntity().getContent() : InputStream.nullInputStream();
+            return new JsonArrayIterator<>(objectMapper, content, objectMapper.constructType(elementType), resource);
+        } catch (IOException | RuntimeException e) {
+            resource.close();
+            throw e;
+        }
+    }
+
+    private HttpClient streamingHttpClient() {
+        if (httpClient != null) {
+            return httpClient;
+        }
+        if (restTemplate.getRequestFactory() instanceof HttpComponentsClientHttpRequestFactory factory) {
+            return factory.getHttpClient();
+        }
+        throw new IllegalStateException("Streaming requires a RestTemplate backed by Apache HttpClient");
+    }
+
+    private static RestClientResponseException toException(ClassicHttpResponse response) throws IOException {
+        HttpHeaders headers = new HttpHeaders();
+        for (Header header : response.getHeaders()) {
+            headers.add(header.getName(), header.getValue());
+        }
+        byte[] body = response.getEntity() != null ? EntityUtils.toByteArray(response.getEntity()) : new byte[0];
+        Charset charset = StandardCharsets.UTF_8;
+        if (response.getEntity() != null && response.getEntity().getContentType() != null) {
+            Charset declared = ContentType.parse(response.getEntity().getContentType()).getCharset();
+            charset = declared != null ? declared : charset;
+        }
+        return HttpStatusErrors.create(response.getCode(), response.getReasonPhrase(), headers, body, charset);
     }
     
     // Authentication endpoints
     public LoginResponse login(LoginRequest request) {
-        return login(defaultTenant, request);
+        return login(context != null && context.getTenant() != null ? context.getTenant() : defaultTenant, request);
     }
 
     public LoginResponse login(String tenant, LoginRequest request) {
@@ -169,8 +623,10 @@ public class DocumentApiClient {
             ResponseEntity<LoginResponse> response = exchange(endpoint, HttpMethod.POST, request, LoginResponse.class);
             LoginResponse body = response.getBody();
             if (body != null && body.getToken() != null && !body.getToken().isBlank()) {
-                setAuthToken(tenant, body.getToken());
-                setActiveTenant(tenant);
+                storeToken(tenant, body.getToken(), body.getExpiresIn());
+                if (context == null) {
+                    setActiveTenant(tenant);
+                }
             }
             return body;
         } catch (HttpClientErrorException e) {
@@ -180,7 +636,7 @@ public class DocumentApiClient {
     }
     
     public LoginResponse register(RegisterRequest request) {
-        return register(defaultTenant, request);
+        return register(context != null && context.getTenant() != null ? context.getTenant() : defaultTenant, request);
     }
 
     public LoginResponse register(String tenant, RegisterRequest request) {
@@ -193,8 +649,10 @@ public class DocumentApiClient {
             ResponseEntity<LoginResponse> response = exchange(endpoint, HttpMethod.POST, request, LoginResponse.class);
             LoginResponse body = response.getBody();
             if (body != null && body.getToken() != null && !body.getToken().isBlank()) {
-                setAuthToken(tenant, body.getToken());
-                setActiveTenant(tenant);
+                storeToken(tenant, body.getToken(), body.getExpiresIn());
+                if (context == null) {
+                    setActiveTenant(tenant);
+                }
             }
             return body;
         } catch (HttpClientErrorException e) {
@@ -539,17 +997,34 @@ public class DocumentApiClient {
             ResponseEntity<List<DocumentResponse>> response = exchange("/api/documents", HttpMethod.GET, null,
                     new ParameterizedTypeReference<>() {
                     });
-            return response.getBody();
+            return cacheUrls(urlScope(), response.getBody());
         } catch (HttpClientErrorException e) {
             log.error("Failed to get documents: {}", e.getResponseBodyAsString());
             throw e;
         }
     }
     
+    /**
+     * Stream all visible documents, decoding each one as it arrives instead of materializing the whole list.
+     * The stream holds an open connection and must be closed, e.g. with try-with-resources.
+     */
+    public Stream<DocumentResponse> streamDocuments() {
+        try {
+            String scope = urlScope();
+            return openJsonArray("/api/documents", HttpMethod.GET, null, DocumentResponse.class).stream()
+                    .map(document -> cacheUrls(scope, document));
+        } catch (RestClientResponseException e) {
+            log.error("Failed to get documents: {}", e.getResponseBodyAsString());
+            throw e;
+        } catch (IOException e) {
+            throw new ResourceAccessException("Failed to get documents: " + e.getMessage(), e);
+        }
+    }
+    
     public DocumentResponse getDocument(String id) {
         try {
             ResponseEntity<DocumentResponse> response = exchange("/api/documents/" + id, HttpMethod.GET, null, DocumentResponse.class);
-            return response.getBody();
+            return cacheUrls(urlScope(), response.getBody());
         } catch (HttpClientErrorException e) {
             log.error("Failed to get document: {}", e.getResponseBodyAsString());
             throw e;
@@ -559,7 +1034,7 @@ public class DocumentApiClient {
     public DocumentResponse createDocument(DocumentRequest request) {
         try {
             ResponseEntity<DocumentResponse> response = exchange("/api/documents", HttpMethod.POST, request, DocumentResponse.class);
-            return response.getBody();
+            return cacheUrls(urlScope(), response.getBody());
         } catch (HttpClientErrorException e) {
             log.error("Failed to create document: {}", e.getResponseBodyAsString());
             throw e;
@@ -614,53 +1089,121 @@ public class DocumentApiClient {
         return uploadAttachments(id, files, null);
     }
 
+    /**
+     * Upload the files in one batch request. To send large files through multipart sessions and split the rest
+     * into bounded batches, use an {@link AttachmentUploader}.
+     */
     public List<DocumentAttachmentDto> uploadAttachments(String id, List<File> files, String lockId) {
+        List<AttachmentSource> sources = null;
+        if (files != null) {
+            sources = new ArrayList<>(files.size());
+            for (File file : files) {
+                sources.add(file != null ? AttachmentSource.of(file) : null);
+            }
+        }
+        return uploadAttachmentSources(id, sources, lockId);
+    }
+
+    public List<DocumentAttachmentDto> uploadAttachmentSources(String id, List<AttachmentSource> sources) {
+        return uploadAttachmentSources(id, sources, null);
+    }
+
+    /**
+     * Upload attachments in one multipart request. The body is encoded while it is sent: file contents are
+     * transferred from their channels and stream sources read through a small buffer, so memory use is the same
+     * for one small file or many large ones. With all lengths known the request carries an exact Content-Length,
+     * otherwise it is sent chunked.
+     */
+    public List<DocumentAttachmentDto> uploadAttachmentSources(String id, List<AttachmentSource> sources, String lockId) {
         try {
             if (id == null || id.isBlank()) {
                 throw new IllegalArgumentException("Document id cannot be null/blank");
             }
-            if (files == null || files.isEmpty()) {
+            if (sources == null || sources.isEmpty()) {
                 throw new IllegalArgumentException("Files list cannot be null/empty");
             }
-
-            MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
-
-            for (File file : files) {
-                if (file == null) {
-                    continue;
+            for (AttachmentSource source : sources) {
+                if (source != null && source.getPath() != null && !Files.isRegularFile(source.getPath())) {
+                    throw new IllegalArgumentException("File does not exist or is not a regular file: " + source.getPath());
                 }
-                if (!file.exists() || !file.isFile()) {
-                    throw new IllegalArgumentException("File does not exist or is not a regular file: " + file);
-                }
-                body.add("files", new FileSystemResource(file));
             }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.MULTIPART_FORM_DATA);
-            if (authToken != null) {
-                headers.setBearerAuth(authToken);
-            }
-            if (lockId != null && !lockId.isBlank()) {
-                headers.set(LOCK_HEADER, lockId);
+            MultipartFormDataEncoder encoder = new MultipartFormDataEncoder("files", sources);
+            TransferTracker tracker = TransferTracker.start(transferListener, TransferProgress.Direction.UPLOAD, id,
+                    batchName(sources), encoder.contentLength(), 1);
+            Function<String, RequestCallback> requestCallback = token -> request -> {
+                HttpHeaders headers = request.getHeaders();
+                headers.setContentType(MediaType.parseMediaType(encoder.contentType()));
+                headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+                long contentLength = encoder.contentLength();
+                if (contentLength >= 0) {
+                    headers.setContentLength(contentLength);
+                }
+                if (token != null && !token.isBlank()) {
+                    headers.setBearerAuth(token);
+                }
+                String effectiveLockId = effectiveLockId(lockId);
+                if (effectiveLockId != null && !effectiveLockId.isBlank()) {
+                    headers.set(LOCK_HEADER, effectiveLockId);
+                }
+                BandwidthScheduler scheduler = bandwidthScheduler;
+                BandwidthScheduler.Throttle throttle = scheduler != null ? scheduler.forTenant(getActiveTenant()) : null;
+                if (request instanceof StreamingHttpOutputMessage streaming) {
+                    streaming.setBody(out -> encoder.writeTo(tracker.wrap(throttle != null ? throttle.wrap(out) : out)));
+                } else {
+                    encoder.writeTo(tracker.wrap(throttle != null ? throttle.wrap(request.getBody()) : request.getBody()));
+                }
+            };
+
+            String endpoint = "/api/documents/" + id + "/attachments/batch";
+            AtomicReference<HttpClientErrorException> rejection = new AtomicReference<>();
+            Function<String, ResponseEntity<List<DocumentAttachmentDto>>> send = token -> {
+                HttpClientErrorException rejected = rejection.get();
+                if (rejected != null) {
+                    tracker.retry(1, 1, tracker.transferred(), rejected);
+                }
+                try {
+                    return send(() -> restTemplate.execute(
+                        baseUrl + endpoint,
+                        HttpMethod.POST,
+                        requestCallback.apply(token),
+                        restTemplate.responseEntityExtractor(new ParameterizedTypeReference<List<DocumentAttachmentDto>>() {
+                        }.getType())
+                    ));
+                } catch (HttpClientErrorException.Unauthorized e) {
+                    rejection.set(e);
+                    throw e;
+                }
+            };
+
+            // Stream sources can be sent only once, so a rejected upload of them is not replayed
+            boolean repeatable = sources.stream().allMatch(source -> source == null || source.isRepeatable());
+            long startNanos = System.nanoTime();
+            ResponseEntity<List<DocumentAttachmentDto>> response;
+            try {
+                response = repeatable ? authenticated(endpoint, send) : send.apply(effectiveToken());
+            } catch (RuntimeException e) {
+                tracker.failed(e);
+                throw e;
             }
+            tracker.partCompleted(1, encoder.contentLength(), System.nanoTime() - startNanos);
+            tracker.completed();
 
-            HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(body, headers);
-
-            ResponseEntity<List<DocumentAttachmentDto>> response = restTemplate.exchange(
-                baseUrl + "/api/documents/" + id + "/attachments/batch",
-                HttpMethod.POST,
-                requestEntity,
-                    new ParameterizedTypeReference<>() {
-                    }
-            );
-
-            return response.getBody() != null ? response.getBody() : new ArrayList<>();
+            return response != null && response.getBody() != null ? response.getBody() : new ArrayList<>();
         } catch (Exception e) {
             log.error("Failed to upload attachments to document {}: {}", id, e.getMessage());
             throw new RuntimeException("Failed to upload attachments", e);
         }
     }
 
+    /**
+     * How a batch upload is named in transfer progress
+     */
+    static String batchName(List<AttachmentSource> sources) {
+        List<String> names = sources.stream().filter(Objects::nonNull).map(AttachmentSource::getFileName).toList();
+        return names.size() == 1 ? names.get(0) : names.size() + " files";
+    }
+
     public List<DocumentDto> getDocumentAttachments(String documentId) {
         try {
             ResponseEntity<List<DocumentDto>> response = exchange(
@@ -670,6 +1213,9 @@ public class DocumentApiClient {
                     new ParameterizedTypeReference<>() {
                     }
             );
+            if (presignedUrlCache != null) {
+                presignedUrlCache.putAll(urlScope(), documentId, response.getBody());
+            }
             return response.getBody();
         } catch (HttpClientErrorException e) {
             log.error("Failed to get document attachments: {}", e.getResponseBodyAsString());
@@ -677,6 +1223,43 @@ public class DocumentApiClient {
         }
     }
 
+    /**
+     * Cache the presigned URLs of the attachments embedded in documents
+     */
+    private List<DocumentResponse> cacheUrls(String scope, List<DocumentResponse> documents) {
+        if (documents != null && presignedUrlCache != null) {
+            documents.forEach(document -> cacheUrls(scope, document));
+        }
+        return documents;
+    }
+
+    private DocumentResponse cacheUrls(String scope, DocumentResponse document) {
+        PresignedUrlCache cache = presignedUrlCache;
+        if (cache != null && document != null) {
+            cache.putAll(scope, document.getId(), document.getDocuments());
+        }
+        return document;
+    }
+
+    /**
+     * Scope of the download URLs this client caches: the token its calls are made with, else the tenant (see
+     * {@link PresignedUrlCache#scopeOf}). Clients sharing a {@link PresignedUrlCache} thus never serve each other's
+     * URLs.
+     */
+    private String urlScope() {
+        return PresignedUrlCache.scopeOf(getActiveTenant(), effectiveToken());
+    }
+
+    /**
+     * Drop the cached download URL of an attachment, e.g. once it was rejected
+     */
+    void forgetDownloadUrl(String documentId, String attachmentId) {
+        PresignedUrlCache cache = presignedUrlCache;
+        if (cache != null) {
+            cache.invalidate(urlScope(), documentId, attachmentId);
+        }
+    }
+
     public MultipartUploadInitResponse initMultipartUpload(String documentId, MultipartUploadInitRequest request, String lockId) {
         try {
             ResponseEntity<MultipartUploadInitResponse> response = exchange(
@@ -763,7 +1346,16 @@ public class DocumentApiClient {
         }
     }
     
+    /**
+     * Presigned download URL for an attachment, served from the {@link PresignedUrlCache} while it is still valid
+     */
     public String getAttachmentDownloadUrl(String documentId, String attachmentId) {
+        PresignedUrlCache cache = presignedUrlCache;
+        String scope = urlScope();
+        String cached = cache != null ? cache.get(scope, documentId, attachmentId) : null;
+        if (cached != null) {
+            return cached;
+        }
         try {
             ResponseEntity<String> response = exchange(
                 "/api/documents/" + documentId + "/attachments/" + attachmentId + "/download", 
@@ -771,7 +1363,11 @@ public class DocumentApiClient {
                 null, 
                 String.class
             );
-            return response.getBody();
+            String url = response.getBody() != null ? response.getBody().trim() : null;
+            if (cache != null && url != null) {
+                cache.put(scope, documentId, attachmentId, url, null);
+            }
+            return url;
         } catch (HttpClientErrorException e) {
             log.error("Failed to get attachment download URL: {}", e.getResponseBodyAsString());
             throw e;
@@ -785,7 +1381,7 @@ public class DocumentApiClient {
     public DocumentResponse updateDocument(String id, DocumentRequest request, String lockId) {
         try {
             ResponseEntity<DocumentResponse> response = exchange("/api/documents/" + id, HttpMethod.PUT, request, DocumentResponse.class, lockId);
-            return response.getBody();
+            return cacheUrls(urlScope(), response.getBody());
         } catch (HttpClientErrorException e) {
             log.error("Failed to update document: {}", e.getResponseBodyAsString());
             throw e;
@@ -799,6 +1395,9 @@ public class DocumentApiClient {
     public void deleteDocument(String id, String lockId) {
         try {
             exchange("/api/documents/" + id, HttpMethod.DELETE, null, Void.class, lockId);
+            if (presignedUrlCache != null) {
+                presignedUrlCache.invalidateDocument(id);
+            }
         } catch (HttpClientErrorException e) {
             log.error("Failed to delete document: {}", e.getResponseBodyAsString());
             throw e;
@@ -815,13 +1414,86 @@ public class DocumentApiClient {
             ResponseEntity<List<DocumentResponse>> response = exchange("/api/documents/search", HttpMethod.POST, searchRequest,
                     new ParameterizedTypeReference<>() {
                     });
-            return response.getBody();
+            return cacheUrls(urlScope(), response.getBody());
         } catch (HttpClientErrorException e) {
             log.error("Failed to search documents: {}", e.getResponseBodyAsString());
             throw e;
         }
     }
     
+    /**
+     * Walk every page of a search, starting at the request's page and prefetching the next page in the background
+     * @param searchRequest the search criteria; page and size select the first page and the page size
+     * @return cursor over all matching documents; close it to stop prefetching early
+     */
+    public DocumentSearchCursor searchAllDocuments(DocumentSearchRequest searchRequest) {
+        return searchAllDocuments(searchRequest, DocumentSearchCursor.DEFAULT_PREFETCH_DEPTH);
+    }
+
+    /**
+     * Walk every page of a search, keeping up to prefetchDepth pages in flight ahead of the consumer
+     * @param searchRequest the search criteria; page and size select the first page and the page size
+     * @param prefetchDepth number of pages to fetch ahead of the page being consumed (0 disables read-ahead)
+     * @return cursor over all matching documents; close it to stop prefetching early
+     */
+    public DocumentSearchCursor searchAllDocuments(DocumentSearchRequest searchRequest, int prefetchDepth) {
+        return new DocumentSearchCursor(this::searchDocuments, searchRequest, prefetchDepth);
+    }
+
+    /**
+     * Run one search against several tenants concurrently, each with the token this client holds for it, and merge
+     * the results in the request's sort order
+     * @param searchRequest the search criteria; page and size select each tenant's first page and the page size
+     * @param tenants tenants to search, in the order equal results are returned in
+     */
+    public CrossTenantSearchCursor searchAcrossTenants(DocumentSearchRequest searchRequest, Collection<String> tenants) {
+        return searchAcrossTenants(searchRequest, tenants, DocumentSearchCursor.DEFAULT_PREFETCH_DEPTH);
+    }
+
+    /**
+     * Run one search against several tenants concurrently, keeping up to prefetchDepth pages per tenant in flight
+     * ahead of the merge. Calls carry this client's context (deadline, lock) with each tenant's own token.
+     * @param searchRequest the search criteria; page and size select each tenant's first page and the page size
+     * @param tenants tenants to search, in the order equal results are returned in
+     * @param prefetchDepth pages fetched ahead per tenant; at least one
+     */
+    public CrossTenantSearchCursor searchAcrossTenants(DocumentSearchRequest searchRequest, Collection<String> tenants,
+                                                       int prefetchDepth) {
+        if (tenants == null || tenants.isEmpty()) {
+            throw new IllegalArgumentException("Tenants cannot be null/empty");
+        }
+        Map<String, Function<DocumentSearchRequest, List<DocumentResponse>>> pageFetchers = new LinkedHashMap<>();
+        for (String tenant : tenants) {
+            if (tenant == null || tenant.isBlank()) {
+                throw new IllegalArgumentException("Tenant cannot be null/blank");
+            }
+            RequestContext tenantContext = (context != null ? context.toBuilder() : RequestContext.builder())
+                    .tenant(tenant)
+                    .token(null)
+                    .build();
+            pageFetchers.putIfAbsent(tenant, withContext(tenantContext)::searchDocuments);
+        }
+        return new CrossTenantSearchCursor(pageFetchers, searchRequest, prefetchDepth);
+    }
+
+    /**
+     * Search for documents, decoding each result as it arrives instead of materializing the whole list
+     * @param searchRequest the search criteria including document class, filters, pagination, and sorting
+     * @return lazy stream of matching documents; it holds an open connection and must be closed
+     */
+    public Stream<DocumentResponse> streamSearchDocuments(DocumentSearchRequest searchRequest) {
+        try {
+            String scope = urlScope();
+            return openJsonArray("/api/documents/search", HttpMethod.POST, searchRequest, DocumentResponse.class).stream()
+                    .map(document -> cacheUrls(scope, document));
+        } catch (RestClientResponseException e) {
+            log.error("Failed to search documents: {}", e.getResponseBodyAsString());
+            throw e;
+        } catch (IOException e) {
+            throw new ResourceAccessException("Failed to search documents: " + e.getMessage(), e);
+        }
+    }
+    
     /**
      * Search for documents with simplified parameters
      * @param documentClassId the document class ID to search within
@@ -0,0 +1,171 @@
+package com.claims.documentapi;
+
+import com.claims.documentapi.dto.DocumentResponse;
+import com.claims.documentapi.dto.DocumentSearchRequest;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Iterates over every page of a document search.
+ * While the caller consumes page N, up to {@code prefetchDepth} following pages are already being fetched in the
+ * background. Iteration ends at the first page shorter than the requested page size.
+ * <p>
+ * Pages are fetched on a shared pool of daemon threads that exit when idle, so a cursor abandoned before the end
+ * holds no threads. Closing it (or the stream from {@link #stream()}) stops requesting further pages, but a page
+ * fetch already in flight cannot be aborted: it finishes in the background, holding its connection (and bulkhead
+ * slot) until then, and its result is discarded.
+ */
+public class DocumentSearchCursor implements Iterator<DocumentResponse>, AutoCloseable {
+
+    public static final int DEFAULT_PREFETCH_DEPTH = 1;
+
+    private static final AtomicInteger THREAD_INDEX = new AtomicInteger();
+
+    /** Shared by all cursors; idle threads exit after a minute. */
+    private static final ExecutorService PREFETCH = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "document-search-prefetch-" + THREAD_INDEX.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Function<DocumentSearchRequest, List<DocumentResponse>> pageFetcher;
+    private final DocumentSearchRequest template;
+    private final int pageSize;
+    private final int prefetchDepth;
+    private final Deque<CompletableFuture<List<DocumentResponse>>> pending = new ArrayDeque<>();
+
+    private Iterator<DocumentResponse> current = Collections.emptyIterator();
+    private int nextPageToRequest;
+    private boolean lastPageSeen;
+    private boolean closed;
+
+    DocumentSearchCursor(Function<DocumentSearchRequest, List<DocumentResponse>> pageFetcher,
+                         DocumentSearchRequest searchRequest,
+                         int prefetchDepth) {
+        if (searchRequest == null) {
+            throw new IllegalArgumentException("Search request cannot be null");
+        }
+        if (prefetchDepth < 0) {
+            throw new IllegalArgumentException("Prefetch depth cannot be negative");
+        }
+        this.pageFetcher = pageFetcher;
+        this.template = searchRequest;
+        this.pageSize = searchRequest.getSize() != null && searchRequest.getSize() > 0 ? searchRequest.getSize() : 50;
+        this.nextPageToRequest = searchRequest.getPage() != null ? searchRequest.getPage() : 0;
+        this.prefetchDepth = prefetchDepth;
+        fillPipeline();
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (closed) {
+                return false;
+            }
+            fillPipeline();
+            if (pending.isEmpty()) {
+                close();
+                return false;
+            }
+            List<DocumentResponse> page = awaitPage(pending.removeFirst());
+            if (page.size() < pageSize) {
+                lastPageSeen = true;
+                cancelPending();
+            }
+            current = page.iterator();
+            fillPipeline();
+        }
+        return true;
+    }
+
+    @Override
+    public DocumentResponse next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    /**
+     * Wrap this cursor in a sequential stream that closes the cursor when the stream is closed
+     */
+    public Stream<DocumentResponse> stream() {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(this::close);
+    }
+
+    /**
+     * Stop prefetching and discard pages that have not been consumed; a page already being fetched finishes in the
+     * background
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        cancelPending();
+    }
+
+    private void fillPipeline() {
+        if (closed || lastPageSeen) {
+            return;
+        }
+        // keep prefetchDepth pages in flight beyond the one being consumed (or about to be)
+        int target = current.hasNext() ? prefetchDepth : prefetchDepth + 1;
+        while (pending.size() < target) {
+            DocumentSearchRequest pageRequest = pageRequest(nextPageToRequest++);
+            pending.addLast(CompletableFuture.supplyAsync(() -> {
+                List<DocumentResponse> page = pageFetcher.apply(pageRequest);
+                return page != null ? page : List.of();
+            }, PREFETCH));
+        }
+    }
+
+    private List<DocumentResponse> awaitPage(CompletableFuture<List<DocumentResponse>> page) {
+        try {
+            return page.join();
+        } catch (CompletionException e) {
+            close();
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private void cancelPending() {
+        for (CompletableFuture<List<DocumentResponse>> future : pending) {
+            // Skips a fetch not started yet; one already running is not interrupted
+            future.cancel(false);
+        }
+        pending.clear();
+    }
+
+    private DocumentSearchRequest pageRequest(int page) {
+        DocumentSearchRequest request = new DocumentSearchRequest();
+        request.setDocumentClassId(template.getDocumentClassId());
+        request.setAttributeFilters(template.getAttributeFilters());
+        request.setSortBy(template.getSortBy());
+        request.setSortDirection(template.getSortDirection());
+        request.setSize(pageSize);
+        request.setPage(page);
+        return request;
+    }
+}
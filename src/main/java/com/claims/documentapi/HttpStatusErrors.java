@@ -0,0 +1,33 @@
+package com.claims.documentapi;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.client.UnknownHttpStatusCodeException;
+
+import java.nio.charset.Charset;
+
+/**
+ * Maps raw error responses to the Spring exception types RestTemplate raises, so callers of the
+ * non-RestTemplate code paths can handle failures the same way.
+ */
+final class HttpStatusErrors {
+
+    private HttpStatusErrors() {
+    }
+
+    static RestClientResponseException create(int statusCode, String statusText, HttpHeaders headers, byte[] body, Charset charset) {
+        HttpStatusCode status = HttpStatusCode.valueOf(statusCode);
+        String text = statusText != null ? statusText : "";
+        byte[] bytes = body != null ? body : new byte[0];
+        if (status.is4xxClientError()) {
+            return HttpClientErrorException.create(status, text, headers, bytes, charset);
+        }
+        if (status.is5xxServerError()) {
+            return HttpServerErrorException.create(status, text, headers, bytes, charset);
+        }
+        return new UnknownHttpStatusCodeException(statusCode, text, headers, bytes, charset);
+    }
+}
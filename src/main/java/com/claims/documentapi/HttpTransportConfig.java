@@ -0,0 +1,176 @@
+package com.claims.documentapi;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.apache.hc.client5.http.ConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.io.SocketConfig;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+import java.time.Duration;
+
+/**
+ * HTTP transport settings for {@link DocumentApiClient} and {@link DocumentApiAsyncClient}.
+ * Controls the pooled connection manager, keep-alive handling, connection eviction and timeouts
+ * of the underlying Apache HttpClient.
+ */
+@Getter
+@Builder(toBuilder = true)
+public class HttpTransportConfig {
+
+    /** Maximum number of pooled connections across all routes. */
+    @Builder.Default
+    private final int maxConnectionsTotal = 200;
+
+    /** Maximum number of pooled connections per route (host). */
+    @Builder.Default
+    private final int maxConnectionsPerRoute = 50;
+
+    @Builder.Default
+    private final Duration connectTimeout = Duration.ofSeconds(5);
+
+    @Builder.Default
+    private final Duration responseTimeout = Duration.ofSeconds(60);
+
+    /** How long a caller may wait for a free connection from the pool. */
+    @Builder.Default
+    private final Duration connectionRequestTimeout = Duration.ofSeconds(30);
+
+    /** Keep-alive used when the server sends none; also caps the server-provided value. */
+    @Builder.Default
+    private final Duration keepAlive = Duration.ofSeconds(60);
+
+    /** Idle connections older than this are closed by the background evictor. */
+    @Builder.Default
+    private final Duration idleConnectionEviction = Duration.ofSeconds(30);
+
+    @Builder.Default
+    private final boolean evictExpiredConnections = true;
+
+    /** Maximum lifetime of a pooled connection; {@code null} keeps connections until they expire or go idle. */
+    private final Duration connectionTimeToLive;
+
+    /** Pooled connections idle for longer than this are validated before being leased. */
+    @Builder.Default
+    private final Duration validateAfterInactivity = Duration.ofSeconds(2);
+
+    @Builder.Default
+    private final boolean tcpNoDelay = true;
+
+    /** Number of I/O reactor threads used by the asynchronous client. */
+    @Builder.Default
+    private final int ioThreadCount = Runtime.getRuntime().availableProcessors();
+
+    /** HTTP protocol negotiation for the asynchronous client; NEGOTIATE uses HTTP/2 over TLS when the server offers it. */
+    @Builder.Default
+    private final HttpVersionPolicy httpVersionPolicy = HttpVersionPolicy.NEGOTIATE;
+
+    public static HttpTransportConfig defaults() {
+        return builder().build();
+    }
+
+    /**
+     * Build a pooled HttpClient from these settings. The caller owns the returned client and must close it.
+     */
+    public CloseableHttpClient createHttpClient() {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnectionsTotal)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.STRICT)
+                .setDefaultSocketConfig(SocketConfig.custom()
+                        .setTcpNoDelay(tcpNoDelay)
+                        .setSoKeepAlive(true)
+                        .setSoTimeout(Timeout.of(responseTimeout))
+                        .build())
+                .setDefaultConnectionConfig(connectionConfig())
+                .build();
+
+        var builder = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig())
+                .setKeepAliveStrategy(keepAliveStrategy())
+                .evictIdleConnections(TimeValue.of(idleConnectionEviction));
+        if (evictExpiredConnections) {
+            builder.evictExpiredConnections();
+        }
+        return builder.build();
+    }
+
+    /**
+     * Build a pooled, non-blocking HttpClient from these settings. The returned client is already started;
+     * the caller owns it and must close it.
+     */
+    public CloseableHttpAsyncClient createAsyncHttpClient() {
+        PoolingAsyncClientConnectionManager connectionManager = PoolingAsyncClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnectionsTotal)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.STRICT)
+                .setDefaultConnectionConfig(connectionConfig())
+                .setDefaultTlsConfig(TlsConfig.custom()
+                        .setVersionPolicy(httpVersionPolicy)
+                        .build())
+                .build();
+
+        var builder = HttpAsyncClients.custom()
+                .setConnectionManager(connectionManager)
+                .setIOReactorConfig(IOReactorConfig.custom()
+                        .setIoThreadCount(ioThreadCount)
+                        .setTcpNoDelay(tcpNoDelay)
+                        .setSoKeepAlive(true)
+                        .build())
+                .setDefaultRequestConfig(requestConfig())
+                .setKeepAliveStrategy(keepAliveStrategy())
+                .evictIdleConnections(TimeValue.of(idleConnectionEviction));
+        if (evictExpiredConnections) {
+            builder.evictExpiredConnections();
+        }
+        CloseableHttpAsyncClient client = builder.build();
+        client.start();
+        return client;
+    }
+
+    private ConnectionConfig connectionConfig() {
+        ConnectionConfig.Builder connectionConfig = ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(connectTimeout))
+                .setSocketTimeout(Timeout.of(responseTimeout))
+                .setValidateAfterInactivity(TimeValue.of(validateAfterInactivity));
+        if (connectionTimeToLive != null) {
+            connectionConfig.setTimeToLive(TimeValue.of(connectionTimeToLive));
+        }
+        return connectionConfig.build();
+    }
+
+    RequestConfig requestConfig() {
+        return RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(connectionRequestTimeout))
+                .setResponseTimeout(Timeout.of(responseTimeout))
+                .setConnectionKeepAlive(TimeValue.of(keepAlive))
+                .build();
+    }
+
+    private ConnectionKeepAliveStrategy keepAliveStrategy() {
+        TimeValue max = TimeValue.of(keepAlive);
+        return (response, context) -> {
+            TimeValue advertised = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            if (advertised == null || advertised.getDuration() < 0 || advertised.compareTo(max) > 0) {
+                return max;
+            }
+            return advertised;
+        };
+    }
+}
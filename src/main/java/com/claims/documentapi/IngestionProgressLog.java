@@ -0,0 +1,109 @@
+package com.claims.documentapi;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Append-only record of the files a {@link DirectoryIngestionService} has uploaded.
+ * A file is identified by its absolute path, size and modification time, so a file replaced under the same name
+ * is ingested again. Each line also keeps the document and attachment it was uploaded as. Only lines ending in a
+ * newline count: a torn last line is ignored and cut off before the next record.
+ */
+final class IngestionProgressLog implements AutoCloseable {
+
+    private final Path path;
+    private final Set<String> ingested = new HashSet<>();
+    /** Length of the complete lines; anything after it is a torn line. */
+    private long validLength;
+    private FileChannel writer;
+    private boolean closed;
+
+    private IngestionProgressLog(Path path) {
+        this.path = path;
+    }
+
+    static IngestionProgressLog open(Path path) {
+        IngestionProgressLog log = new IngestionProgressLog(path);
+        if (Files.isRegularFile(path)) {
+            try {
+                byte[] content = Files.readAllBytes(path);
+                int validLength = content.length;
+                while (validLength > 0 && content[validLength - 1] != '\n') {
+                    validLength--;
+                }
+                log.validLength = validLength;
+                for (String line : new String(content, 0, validLength, StandardCharsets.UTF_8).lines().toList()) {
+                    String[] fields = line.split("\t", 5);
+                    if (fields.length == 5) {
+                        log.ingested.add(key(fields[4], fields[0], fields[1]));
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read ingestion progress " + path, e);
+            }
+        }
+        return log;
+    }
+
+    synchronized boolean isIngested(Path file, long size, long lastModified) {
+        return ingested.contains(key(file.toAbsolutePath().toString(), Long.toString(size), Long.toString(lastModified)));
+    }
+
+    /**
+     * Record an uploaded file; the line is forced to disk before this returns. The file counts as ingested for the
+     * life of this log even if the line cannot be written.
+     * @throws IllegalStateException once the log is closed
+     */
+    synchronized void record(Path file, long size, long lastModified, String documentId, String attachmentId) {
+        String absolutePath = file.toAbsolutePath().toString();
+        ingested.add(key(absolutePath, Long.toString(size), Long.toString(lastModified)));
+        if (closed) {
+            throw new IllegalStateException("Ingestion progress " + path + " is closed");
+        }
+        try {
+            if (writer == null) {
+                Path parent = path.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                writer = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                if (writer.size() > validLength) {
+                    // Appended to a torn line, this record would be lost as well
+                    writer.truncate(validLength);
+                }
+            }
+            ByteBuffer line = StandardCharsets.UTF_8.encode(String.join("\t", Long.toString(size), Long.toString(lastModified),
+                    documentId, attachmentId != null ? attachmentId : "", absolutePath) + "\n");
+            while (line.hasRemaining()) {
+                writer.write(line);
+            }
+            writer.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write ingestion progress " + path, e);
+        }
+    }
+
+    private static String key(String absolutePath, String size, String lastModified) {
+        return absolutePath + "\t" + size + "\t" + lastModified;
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException ignored) {
+            }
+            writer = null;
+        }
+    }
+}
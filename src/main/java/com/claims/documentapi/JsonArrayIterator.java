@@ -0,0 +1,124 @@
+package com.claims.documentapi;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazily decodes the elements of a top-level JSON array with Jackson's streaming parser.
+ * Each element is bound only when requested, so memory use is bounded by the largest single element.
+ * The iterator closes itself once the array is exhausted; closing it earlier releases the underlying resource
+ * (e.g. the HTTP connection) without reading the rest of the body.
+ */
+public class JsonArrayIterator<T> implements Iterator<T>, Closeable {
+
+    private final JsonParser parser;
+    private final ObjectMapper objectMapper;
+    private final JavaType elementType;
+    private final Closeable resource;
+
+    private T next;
+    private boolean finished;
+    private boolean closed;
+
+    JsonArrayIterator(ObjectMapper objectMapper, InputStream content, JavaType elementType, Closeable resource) throws IOException {
+        this.objectMapper = objectMapper;
+        this.elementType = elementType;
+        this.resource = resource;
+        this.parser = objectMapper.getFactory().createParser(content);
+
+        JsonToken first = parser.nextToken();
+        if (first == null || first == JsonToken.VALUE_NULL) {
+            finished = true;
+        } else if (first != JsonToken.START_ARRAY) {
+            close();
+            throw new IOException("Expected a JSON array but found " + first);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        try {
+            // null elements are skipped
+            while (next == null) {
+                if (finished || closed) {
+                    return false;
+                }
+                JsonToken token = parser.nextToken();
+                if (token == null || token == JsonToken.END_ARRAY) {
+                    finished = true;
+                    close();
+                    return false;
+                }
+                next = objectMapper.readValue(parser, elementType);
+            }
+            return true;
+        } catch (IOException e) {
+            close();
+            throw new UncheckedIOException("Failed to read JSON array element", e);
+        }
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T value = next;
+        next = null;
+        return value;
+    }
+
+    /**
+     * Wrap this iterator in a sequential stream that closes the iterator when the stream is closed
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(this::close);
+    }
+
+    /**
+     * Close the parser and the underlying resource. A fully consumed body is drained and closed normally so the
+     * connection can be reused; an abandoned one is released first so the unread remainder is not drained.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (finished) {
+            closeQuietly(parser);
+            closeQuietly(resource);
+        } else {
+            closeQuietly(resource);
+            closeQuietly(parser);
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.claims.documentapi;
+
+import com.claims.documentapi.dto.MultipartCompletedPart;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Small append-only text file recording the progress of one resumable multipart upload.
+ * The first line identifies the session and the local file it was started for; each further line records a
+ * part accepted by the object store with its ETag. Only lines ending in a newline count, so a torn last line
+ * (process killed mid-write) is ignored, and cut off before the next part is recorded.
+ */
+final class MultipartCheckpointJournal implements AutoCloseable {
+
+    private static final String SESSION = "session";
+    private static final String PART = "part";
+
+    private final Path path;
+    private final Header header;
+    private final Map<Integer, String> completedParts;
+    private final Map<Integer, byte[]> checksums;
+    /** Length of the complete lines; anything after it is a torn line. */
+    private final long validLength;
+    private FileChannel writer;
+    private boolean closed;
+
+    private MultipartCheckpointJournal(Path path, Header header, Map<Integer, String> completedParts,
+                                       Map<Integer, byte[]> checksums, long validLength) {
+        this.path = path;
+        this.header = header;
+        this.completedParts = completedParts;
+        this.checksums = checksums;
+        this.validLength = validLength;
+    }
+
+    /**
+     * Identity of the session a journal belongs to. The file's size and modification time guard against
+     * resuming with content that changed since the upload started.
+     */
+    record Header(String documentId, String sessionId, int partSizeBytes, String filePath, long fileSize, long lastModified) {
+
+        static Header of(String documentId, String sessionId, int partSizeBytes, File file) {
+            return new Header(documentId, sessionId, partSizeBytes, file.getAbsolutePath(), file.length(), file.lastModified());
+        }
+
+        boolean matches(String documentId, File file) {
+            return this.documentId.equals(documentId)
+                    && filePath.equals(file.getAbsolutePath())
+                    && fileSize == file.length()
+                    && lastModified == file.lastModified();
+        }
+
+        private String toLine() {
+            return String.join("\t", SESSION, documentId, sessionId, Integer.toString(partSizeBytes),
+                    Long.toString(fileSize), Long.toString(lastModified), filePath);
+        }
+
+        private static Header parse(String line) {
+            String[] fields = line.split("\t", 7);
+            if (fields.length != 7 || !SESSION.equals(fields[0])) {
+                throw new IllegalArgumentException("Not a multipart checkpoint journal header");
+            }
+            return new Header(fields[1], fields[2], Integer.parseInt(fields[3]), fields[6],
+                    Long.parseLong(fields[4]), Long.parseLong(fields[5]));
+        }
+    }
+
+    /**
+     * Read an existing journal; empty when the file does not exist or is unreadable
+     */
+    static Optional<MultipartCheckpointJournal> open(Path path) {
+        if (!Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        try {
+            byte[] content = Files.readAllBytes(path);
+            int validLength = content.length;
+            while (validLength > 0 && content[validLength - 1] != '\n') {
+                validLength--;
+            }
+            List<String> lines = new String(content, 0, validLength, StandardCharsets.UTF_8).lines().toList();
+            if (lines.isEmpty()) {
+                return Optional.empty();
+            }
+            Header header = Header.parse(lines.get(0));
+            Map<Integer, String> parts = new TreeMap<>();
+            Map<Integer, byte[]> checksums = new TreeMap<>();
+            for (String line : lines.subList(1, lines.size())) {
+                String[] fields = line.split("\t", 4);
+                if (fields.length >= 3 && PART.equals(fields[0]) && !fields[2].isBlank()) {
+                    try {
+                        int partNumber = Integer.parseInt(fields[1]);
+                        parts.put(partNumber, fields[2]);
+                        if (fields.length == 4 && !fields[3].isBlank()) {
+                            checksums.put(partNumber, Base64.getDecoder().decode(fields[3]));
+                        }
+                    } catch (IllegalArgumentException ignored) {
+                    }
+                }
+            }
+            return Optional.of(new MultipartCheckpointJournal(path, header, parts, checksums, validLength));
+        } catch (IOException | RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Start a new journal for a freshly initiated session, replacing any previous one
+     */
+    static MultipartCheckpointJournal create(Path path, Header header) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        byte[] firstLine = (header.toLine() + "\n").getBytes(StandardCharsets.UTF_8);
+        Files.write(path, firstLine, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        return new MultipartCheckpointJournal(path, header, new TreeMap<>(), new TreeMap<>(), firstLine.length);
+    }
+
+    Header header() {
+        return header;
+    }
+
+    synchronized boolean isCompleted(int partNumber) {
+        return completedParts.containsKey(partNumber);
+    }
+
+    synchronized List<MultipartCompletedPart> completedParts() {
+        List<MultipartCompletedPart> parts = new ArrayList<>(completedParts.size());
+        completedParts.forEach((partNumber, eTag) -> {
+            MultipartCompletedPart part = new MultipartCompletedPart();
+            part.setPartNumber(partNumber);
+            part.setETag(eTag);
+            parts.add(part);
+        });
+        return parts;
+    }
+
+    /**
+     * Checksums recorded with the parts, by part number
+     */
+    synchronized Map<Integer, byte[]> checksums() {
+        return new TreeMap<>(checksums);
+    }
+
+    void record(MultipartCompletedPart part) {
+        record(part, null);
+    }
+
+    /**
+     * Durably record an uploaded part (and its checksum, if any) before it is reported as done: the line is forced
+     * to disk before this returns
+     * @throws IllegalStateException once the journal is closed
+     */
+    synchronized void record(MultipartCompletedPart part, byte[] checksum) {
+        if (closed) {
+            throw new IllegalStateException("Multipart checkpoint " + path + " is closed");
+        }
+        try {
+            if (writer == null) {
+                writer = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                if (writer.size() > validLength) {
+                    // Appending to a torn line would corrupt this part's line as well
+                    writer.truncate(validLength);
+                }
+            }
+            ByteBuffer line = StandardCharsets.UTF_8.encode(PART + "\t" + part.getPartNumber() + "\t" + part.getETag()
+                    + (checksum != null ? "\t" + Base64.getEncoder().encodeToString(checksum) : "") + "\n");
+            while (line.hasRemaining()) {
+                writer.write(line);
+            }
+            writer.force(false);
+            completedParts.put(part.getPartNumber(), part.getETag());
+            if (checksum != null) {
+                checksums.put(part.getPartNumber(), checksum);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write multipart checkpoint " + path, e);
+        }
+    }
+
+    /**
+     * Remove the journal once its session is completed or can no longer be resumed
+     */
+    void delete() {
+        close();
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException ignored) {
+            }
+            writer = null;
+        }
+    }
+}
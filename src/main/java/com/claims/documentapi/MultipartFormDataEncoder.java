@@ -0,0 +1,134 @@
+package com.claims.documentapi;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Writes a multipart/form-data body of attachment sources straight to an output stream.
+ * Part headers are a few hundred bytes each; file contents are moved with {@link FileChannel#transferTo} and
+ * streams through one small buffer, so memory use does not depend on the number or size of the files. When every
+ * length is known the exact body length is available up front and the request can be sent with Content-Length.
+ */
+final class MultipartFormDataEncoder {
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    private final String boundary;
+    private final List<Part> parts;
+
+    MultipartFormDataEncoder(String fieldName, List<AttachmentSource> sources) {
+        this.boundary = "----document-api-" + UUID.randomUUID().toString().replace("-", "");
+        this.parts = new ArrayList<>(sources.size());
+        for (AttachmentSource source : sources) {
+            if (source != null) {
+                parts.add(new Part(source, header(fieldName, source)));
+            }
+        }
+    }
+
+    String contentType() {
+        return "multipart/form-data; boundary=" + boundary;
+    }
+
+    /**
+     * Exact body length, or -1 if any source has an unknown length
+     */
+    long contentLength() {
+        long length = closingDelimiter().length;
+        for (Part part : parts) {
+            if (!part.source().isLengthKnown()) {
+                return -1;
+            }
+            length += part.header().length + part.source().getLength() + CRLF.length;
+        }
+        return length;
+    }
+
+    void writeTo(OutputStream out) throws IOException {
+        WritableByteChannel target = Channels.newChannel(out);
+        ByteBuffer copyBuffer = null;
+        for (Part part : parts) {
+            out.write(part.header());
+            AttachmentSource source = part.source();
+            try (ReadableByteChannel content = source.openChannel()) {
+                long written;
+                if (content instanceof FileChannel file) {
+                    written = transfer(file, target);
+                } else {
+                    if (copyBuffer == null) {
+                        copyBuffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+                    }
+                    written = copy(content, target, copyBuffer);
+                }
+                if (source.isLengthKnown() && written != source.getLength()) {
+                    throw new IOException("Attachment " + source.getFileName() + " delivered " + written
+                            + " bytes, expected " + source.getLength());
+                }
+            }
+            out.write(CRLF);
+        }
+        out.write(closingDelimiter());
+        out.flush();
+    }
+
+    private static long transfer(FileChannel file, WritableByteChannel target) throws IOException {
+        long size = file.size();
+        long position = 0;
+        while (position < size) {
+            long transferred = file.transferTo(position, size - position, target);
+            if (transferred <= 0) {
+                break;
+            }
+            position += transferred;
+        }
+        return position;
+    }
+
+    private static long copy(ReadableByteChannel content, WritableByteChannel target, ByteBuffer buffer) throws IOException {
+        long written = 0;
+        buffer.clear();
+        while (content.read(buffer) >= 0) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                written += target.write(buffer);
+            }
+            buffer.clear();
+        }
+        return written;
+    }
+
+    private byte[] header(String fieldName, AttachmentSource source) {
+        String contentType = source.getContentType();
+        if (contentType.indexOf('\r') >= 0 || contentType.indexOf('\n') >= 0) {
+            // A header value has no escaping, so a line break would start a header of its own
+            throw new IllegalArgumentException("Content type of " + source.getFileName() + " contains a line break");
+        }
+        String header = "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + escape(fieldName) + "\"; filename=\""
+                + escape(source.getFileName()) + "\"\r\n"
+                + "Content-Type: " + contentType + "\r\n"
+                + "\r\n";
+        return header.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[] closingDelimiter() {
+        return ("--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\r", "%0D").replace("\n", "%0A");
+    }
+
+    private record Part(AttachmentSource source, byte[] header) {
+    }
+}
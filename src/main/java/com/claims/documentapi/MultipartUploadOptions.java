@@ -0,0 +1,77 @@
+package com.claims.documentapi;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Tuning knobs for {@link MultipartUploader}.
+ */
+@Getter
+@Builder(toBuilder = true)
+public class MultipartUploadOptions {
+
+    /** Maximum number of parts uploaded concurrently. */
+    @Builder.Default
+    private final int parallelism = 8;
+
+    /** Concurrency the upload starts with; adjusted between 1 and {@link #parallelism} when adaptive. */
+    @Builder.Default
+    private final int initialParallelism = 2;
+
+    /** Adapt concurrency to measured throughput and part failures (AIMD); when false {@link #parallelism} is fixed. */
+    @Builder.Default
+    private final boolean adaptiveConcurrency = true;
+
+    /** Attempts per part (first try included) before the whole upload fails. */
+    @Builder.Default
+    private final int maxPartAttempts = 3;
+
+    /** Delay before the first retry of a part; doubled on each further attempt. */
+    @Builder.Default
+    private final Duration retryBackoff = Duration.ofMillis(500);
+
+    /** Preferred part size for mid-sized files; the size requested from the server is derived from the file size. */
+    @Builder.Default
+    private final int defaultPartSizeBytes = 10 * 1024 * 1024;
+
+    /** Part size floor (never below the object store's 5 MiB minimum). */
+    @Builder.Default
+    private final int minPartSizeBytes = PartSizePolicy.MIN_PART_SIZE_BYTES;
+
+    /** Part size ceiling, reached only when the file would otherwise need more than 10,000 parts. */
+    @Builder.Default
+    private final int maxPartSizeBytes = 1024 * 1024 * 1024;
+
+    @Builder.Default
+    private final Duration connectTimeout = Duration.ofSeconds(10);
+
+    /** Timeout for a single part PUT to the presigned URL. */
+    @Builder.Default
+    private final Duration partTimeout = Duration.ofMinutes(5);
+
+    /** Checksum computed per part, sent with it and recorded (as a composite) on the result. */
+    @Builder.Default
+    private final ChecksumAlgorithm checksumAlgorithm = ChecksumAlgorithm.NONE;
+
+    /** Parts of a stream source held in memory at once (each a direct buffer of the part size). */
+    @Builder.Default
+    private final int streamingBufferCount = 4;
+
+    /** Number of parts whose URLs are presigned ahead of the part being uploaded. */
+    @Builder.Default
+    private final int presignLookahead = 8;
+
+    /** Maximum number of presign requests in flight. */
+    @Builder.Default
+    private final int presignConcurrency = 2;
+
+    /** A presigned URL expiring within this margin is re-presigned before use. */
+    @Builder.Default
+    private final Duration presignExpirySafetyMargin = Duration.ofSeconds(30);
+
+    public static MultipartUploadOptions defaults() {
+        return builder().build();
+    }
+}
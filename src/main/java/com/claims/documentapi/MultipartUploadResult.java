@@ -0,0 +1,26 @@
+package com.claims.documentapi;
+
+import com.claims.documentapi.dto.MultipartCompletedPart;
+import com.claims.documentapi.dto.MultipartUploadCompleteResponse;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Outcome of a completed {@link MultipartUploader} upload.
+ */
+@Data
+public class MultipartUploadResult {
+    private String documentId;
+    private String sessionId;
+    private String attachmentId;
+    private String fileName;
+    private long fileSize;
+    private int partSizeBytes;
+    private List<MultipartCompletedPart> parts;
+    private MultipartUploadCompleteResponse completeResponse;
+    /** Algorithm of {@link #checksum}, null when checksums were disabled. */
+    private ChecksumAlgorithm checksumAlgorithm;
+    /** Composite checksum of the parts ({@code <checksum of part checksums>-<part count>}), as S3 reports it. */
+    private String checksum;
+}
@@ -0,0 +1,552 @@
+package com.claims.documentapi;
+
+import com.claims.documentapi.dto.*;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * Uploads files through the multipart session API, sending parts directly to their presigned URLs.
+ * Part size is chosen from the file size (see {@link PartSizePolicy}) unless the server dictates one. Parts are
+ * uploaded concurrently, up to {@link MultipartUploadOptions#getParallelism()} at a time with the actual number
+ * adapted to measured throughput and failures, and retried individually; the session is completed with the ETags
+ * in part order, or aborted if any part finally fails.
+ * Part bodies are memory-mapped regions of the file streamed straight to the socket, so no part is copied
+ * into a heap array regardless of part size or concurrency. Part URLs are presigned ahead of the uploaders
+ * (see {@link MultipartUploadOptions#getPresignLookahead()}) so presign round-trips stay off the data path.
+ * Progress is reported to the client's {@link TransferListener}, if any.
+ */
+@Slf4j
+public class MultipartUploader implements AutoCloseable {
+
+    private static final Set<String> TERMINAL_SESSION_STATES = Set.of("COMPLETED", "ABORTED", "FAILED", "EXPIRED");
+
+    private final DocumentApiClient client;
+    private final MultipartUploadOptions options;
+    private final HttpClient httpClient;
+    private final ExecutorService executor;
+    private final ExecutorService presignExecutor;
+
+    public MultipartUploader(DocumentApiClient client) {
+        this(client, MultipartUploadOptions.defaults());
+    }
+
+    public MultipartUploader(DocumentApiClient client, MultipartUploadOptions options) {
+        if (client == null) {
+            throw new IllegalArgumentException("Client cannot be null");
+        }
+        this.client = client;
+        this.options = options != null ? options : MultipartUploadOptions.defaults();
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(this.options.getConnectTimeout())
+                .build();
+        this.executor = TransferSupport.newDaemonPool(this.options.getParallelism(), "multipart-upload-");
+        this.presignExecutor = TransferSupport.newDaemonPool(this.options.getPresignConcurrency(), "multipart-presign-");
+    }
+
+    public MultipartUploadResult upload(String documentId, File file, String lockId) {
+        return upload(documentId, file, null, lockId);
+    }
+
+    /**
+     * Upload a file as a new attachment of the document
+     * @param documentId the document to attach to
+     * @param file local file to upload
+     * @param contentType MIME type; probed from the file name when null
+     * @param lockId lock held on the document
+     * @return the completed upload, including the new attachment id
+     */
+    public MultipartUploadResult upload(String documentId, File file, String contentType, String lockId) {
+        validate(documentId, file);
+
+        MultipartUploadInitRequest initRequest = initRequest(file, contentType);
+        MultipartUploadInitResponse initResponse = client.initMultipartUpload(documentId, initRequest, lockId);
+        String sessionId = initResponse.getSessionId();
+        int partSizeBytes = partSize(initRequest, initResponse);
+        PartChecksums checksums = new PartChecksums(options.getChecksumAlgorithm());
+        TransferTracker tracker = TransferTracker.start(client.getTransferListener(), TransferProgress.Direction.UPLOAD,
+                documentId, file.getName(), file.length(), partCount(file.length(), partSizeBytes));
+        try {
+            List<MultipartCompletedPart> completedParts =
+                    uploadParts(documentId, sessionId, file, partSizeBytes, checksums, tracker, partNumber -> false, part -> { });
+            MultipartUploadResult result = complete(documentId, sessionId, file.getName(), file.length(), partSizeBytes,
+                    completedParts, checksums, lockId);
+            tracker.completed();
+            return result;
+        } catch (Exception e) {
+            Throwable cause = TransferSupport.unwrap(e);
+            tracker.failed(cause);
+            log.error("Multipart upload of {} to document {} failed: {}", file.getName(), documentId, cause.getMessage());
+            abortQuietly(documentId, sessionId, lockId);
+            throw new RuntimeException("Multipart upload failed for file " + file.getName(), cause);
+        }
+    }
+
+    /**
+     * Upload a source as a new attachment. File sources take the file path above; stream sources are read once,
+     * part by part, into a bounded set of direct buffers, so neither a temp file nor the whole content is needed.
+     * A stream of unknown length is split into parts of {@link MultipartUploadOptions#getDefaultPartSizeBytes()}.
+     */
+    public MultipartUploadResult upload(String documentId, AttachmentSource source, String lockId) {
+        if (source == null) {
+            throw new IllegalArgumentException("Source cannot be null");
+        }
+        if (source.getPath() != null) {
+            return upload(documentId, source.getPath().toFile(), source.getContentType(), lockId);
+        }
+        if (documentId == null || documentId.isBlank()) {
+            throw new IllegalArgumentException("Document id cannot be null/blank");
+        }
+        if (source.getLength() == 0) {
+            throw new IllegalArgumentException("Cannot multipart-upload an empty stream: " + source.getFileName());
+        }
+
+        MultipartUploadInitRequest initRequest = new MultipartUploadInitRequest();
+        initRequest.setFileName(source.getFileName());
+        initRequest.setContentType(source.getContentType());
+        initRequest.setFileSize(source.isLengthKnown() ? source.getLength() : null);
+        initRequest.setPartSizeBytes(source.isLengthKnown()
+                ? PartSizePolicy.partSizeFor(source.getLength(), options)
+                : Math.max(PartSizePolicy.MIN_PART_SIZE_BYTES, options.getDefaultPartSizeBytes()));
+        MultipartUploadInitResponse initResponse = client.initMultipartUpload(documentId, initRequest, lockId);
+        String sessionId = initResponse.getSessionId();
+        int partSizeBytes = partSize(initRequest, initResponse);
+        PartChecksums checksums = new PartChecksums(options.getChecksumAlgorithm());
+        TransferTracker tracker = TransferTracker.start(client.getTransferListener(), TransferProgress.Direction.UPLOAD,
+                documentId, source.getFileName(), source.getLength(),
+                source.isLengthKnown() ? partCount(source.getLength(), partSizeBytes) : -1);
+        try (ReadableByteChannel channel = source.openChannel()) {
+            StreamedParts streamed = uploadStreamParts(documentId, sessionId, channel, partSizeBytes, source.getLength(),
+                    checksums, tracker);
+            tracker.setTotals(streamed.totalBytes(), streamed.parts().size());
+            MultipartUploadResult result = complete(documentId, sessionId, source.getFileName(), streamed.totalBytes(),
+                    partSizeBytes, new ArrayList<>(streamed.parts()), checksums, lockId);
+            tracker.completed();
+            return result;
+        } catch (Exception e) {
+            Throwable cause = TransferSupport.unwrap(e);
+            if (cause instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            tracker.failed(cause);
+            log.error("Multipart upload of {} to document {} failed: {}", source.getFileName(), documentId, cause.getMessage());
+            abortQuietly(documentId, sessionId, lockId);
+            throw new RuntimeException("Multipart upload failed for file " + source.getFileName(), cause);
+        }
+    }
+
+    /**
+     * Upload a file as a new attachment, checkpointing each uploaded part to {@code journalFile}.
+     * If the journal belongs to an unfinished session for the same (unchanged) file, that session is resumed and
+     * only the parts not yet recorded are sent. On failure the session is left open and the journal kept, so
+     * calling this again continues where the previous attempt stopped. The journal is deleted once the upload
+     * completes.
+     * @param journalFile local checkpoint file, one per upload
+     */
+    public MultipartUploadResult uploadResumable(String documentId, File file, String contentType, String lockId, Path journalFile) {
+        validate(documentId, file);
+        if (journalFile == null) {
+            throw new IllegalArgumentException("Journal file cannot be null");
+        }
+
+        MultipartCheckpointJournal journal = resumableJournal(documentId, file, journalFile).orElse(null);
+        if (journal != null) {
+            log.info("Resuming multipart session {} for {}: {} part(s) already uploaded",
+                    journal.header().sessionId(), file.getName(), journal.completedParts().size());
+        } else {
+            MultipartUploadInitRequest initRequest = initRequest(file, contentType);
+            MultipartUploadInitResponse initResponse = client.initMultipartUpload(documentId, initRequest, lockId);
+            try {
+                journal = MultipartCheckpointJournal.create(journalFile, MultipartCheckpointJournal.Header.of(
+                        documentId, initResponse.getSessionId(), partSize(initRequest, initResponse), file));
+            } catch (IOException e) {
+                abortQuietly(documentId, initResponse.getSessionId(), lockId);
+                throw new RuntimeException("Failed to create multipart checkpoint " + journalFile, e);
+            }
+        }
+
+        String sessionId = journal.header().sessionId();
+        int partSizeBytes = journal.header().partSizeBytes();
+        PartChecksums checksums = new PartChecksums(options.getChecksumAlgorithm());
+        journal.checksums().forEach(checksums::record);
+        TransferTracker tracker = TransferTracker.start(client.getTransferListener(), TransferProgress.Direction.UPLOAD,
+                documentId, file.getName(), file.length(), partCount(file.length(), partSizeBytes));
+        try (MultipartCheckpointJournal checkpoint = journal) {
+            List<MultipartCompletedPart> completedParts = new ArrayList<>(checkpoint.completedParts());
+            long resumedBytes = 0;
+            for (MultipartCompletedPart part : completedParts) {
+                resumedBytes += Math.min(partSizeBytes, file.length() - (long) (part.getPartNumber() - 1) * partSizeBytes);
+            }
+            tracker.resumed(resumedBytes, completedParts.size());
+            completedParts.addAll(uploadParts(documentId, sessionId, file, partSizeBytes, checksums, tracker, checkpoint::isCompleted,
+                    part -> checkpoint.record(part, checksums.get(part.getPartNumber()))));
+            MultipartUploadResult result = complete(documentId, sessionId, file.getName(), file.length(), partSizeBytes,
+                    completedParts, checksums, lockId);
+            checkpoint.delete();
+            tracker.completed();
+            return result;
+        } catch (Exception e) {
+            Throwable cause = TransferSupport.unwrap(e);
+            tracker.failed(cause);
+            log.error("Resumable upload of {} to document {} stopped, session {} kept for resume: {}",
+                    file.getName(), documentId, sessionId, cause.getMessage());
+            throw new RuntimeException("Multipart upload failed for file " + file.getName(), cause);
+        }
+    }
+
+    /**
+     * Journal of a session that can be continued, or empty (discarding a stale journal) when a new session is needed
+     */
+    private Optional<MultipartCheckpointJournal> resumableJournal(String documentId, File file, Path journalFile) {
+        MultipartCheckpointJournal journal = MultipartCheckpointJournal.open(journalFile).orElse(null);
+        if (journal == null) {
+            return Optional.empty();
+        }
+        MultipartCheckpointJournal.Header header = journal.header();
+        if (!header.matches(documentId, file)) {
+            log.info("Discarding multipart checkpoint {}: it was written for a different document or file version", journalFile);
+            journal.delete();
+            return Optional.empty();
+        }
+        try {
+            MultipartUploadStatusResponse status = client.getMultipartUploadStatus(documentId, header.sessionId());
+            if (status != null && isOpen(status)
+                    && (status.getFileSize() == null || status.getFileSize() == header.fileSize())
+                    && (status.getPartSizeBytes() == null || status.getPartSizeBytes() == header.partSizeBytes())) {
+                return Optional.of(journal);
+            }
+            log.info("Multipart session {} can no longer be resumed (status={}), starting a new one",
+                    header.sessionId(), status != null ? status.getStatus() : null);
+        } catch (HttpClientErrorException e) {
+            log.info("Multipart session {} not found ({}), starting a new one", header.sessionId(), e.getStatusCode());
+        }
+        journal.delete();
+        return Optional.empty();
+    }
+
+    private static boolean isOpen(MultipartUploadStatusResponse status) {
+        if (status.getAttachmentId() != null) {
+            return false;
+        }
+        String state = status.getStatus();
+        return state == null || !TERMINAL_SESSION_STATES.contains(state.toUpperCase(Locale.ROOT));
+    }
+
+    private static void validate(String documentId, File file) {
+        if (documentId == null || documentId.isBlank()) {
+            throw new IllegalArgumentException("Document id cannot be null/blank");
+        }
+        if (file == null || !file.exists() || !file.isFile()) {
+            throw new IllegalArgumentException("File does not exist or is not a regular file: " + file);
+        }
+        if (file.length() <= 0) {
+            throw new IllegalArgumentException("Cannot multipart-upload an empty file: " + file);
+        }
+    }
+
+    private MultipartUploadInitRequest initRequest(File file, String contentType) {
+        MultipartUploadInitRequest initRequest = new MultipartUploadInitRequest();
+        initRequest.setFileName(file.getName());
+        initRequest.setContentType(contentType != null ? contentType : probeContentType(file));
+        initRequest.setFileSize(file.length());
+        initRequest.setPartSizeBytes(PartSizePolicy.partSizeFor(file.length(), options));
+        return initRequest;
+    }
+
+    /**
+     * Part size the server settled on, or the requested one when it does not say
+     */
+    private static int partSize(MultipartUploadInitRequest initRequest, MultipartUploadInitResponse initResponse) {
+        return initResponse.getPartSizeBytes() != null && initResponse.getPartSizeBytes() > 0
+                ? initResponse.getPartSizeBytes()
+                : initRequest.getPartSizeBytes();
+    }
+
+    /**
+     * Upload every part not matched by {@code skip}, reporting each one to {@code onPartUploaded} as it finishes
+     * @return the newly uploaded parts
+     */
+    private List<MultipartCompletedPart> uploadParts(String documentId, String sessionId, File file, int partSizeBytes,
+                                                     PartChecksums checksums, TransferTracker tracker, IntPredicate skip,
+                                                     Consumer<MultipartCompletedPart> onPartUploaded) throws IOException {
+        long fileSize = file.length();
+        int totalParts = partCount(fileSize, partSizeBytes);
+        List<Integer> pending = new ArrayList<>(totalParts);
+        for (int partNumber = 1; partNumber <= totalParts; partNumber++) {
+            if (!skip.test(partNumber)) {
+                pending.add(partNumber);
+            }
+        }
+        if (pending.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        AdaptiveConcurrencyLimiter limiter = newLimiter();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+             PresignedPartUrlPipeline presignedUrls = new PresignedPartUrlPipeline(client, documentId, sessionId, pending,
+                     options.getPresignLookahead(), options.getPresignExpirySafetyMargin(), presignExecutor)) {
+            // Returns (or fails) only once no part is in flight, so the channel and URLs are not closed under one
+            TransferSupport.Tasks<MultipartCompletedPart> parts = new TransferSupport.Tasks<>(executor);
+            for (int part : pending) {
+                long offset = (long) (part - 1) * partSizeBytes;
+                int length = (int) Math.min(partSizeBytes, fileSize - offset);
+                parts.submit(() -> {
+                    MultipartCompletedPart completedPart = uploadPartWithRetry(presignedUrls, limiter, checksums, tracker,
+                            sessionId, part, mapPart(channel, part, offset, length), length);
+                    onPartUploaded.accept(completedPart);
+                    return completedPart;
+                });
+            }
+            return parts.awaitAll();
+        }
+    }
+
+    /**
+     * Read the stream part by part into pooled direct buffers and upload each part as soon as it is full.
+     * At most {@link MultipartUploadOptions#getStreamingBufferCount()} parts are held in memory; reading pauses
+     * until an uploaded part frees its buffer.
+     */
+    private StreamedParts uploadStreamParts(String documentId, String sessionId, ReadableByteChannel channel,
+                                            int partSizeBytes, long expectedLength, PartChecksums checksums,
+                                            TransferTracker tracker) throws IOException, InterruptedException {
+        int bufferCount = Math.max(1, options.getStreamingBufferCount());
+        DirectBufferPool buffers = new DirectBufferPool(bufferCount, partSizeBytes);
+        int maxParts = expectedLength >= 0
+                ? (int) Math.max(1, (expectedLength + partSizeBytes - 1) / partSizeBytes)
+                : PartSizePolicy.MAX_PARTS;
+        List<Integer> partNumbers = IntStream.rangeClosed(1, maxParts).boxed().toList();
+        AdaptiveConcurrencyLimiter limiter = newLimiter();
+        TransferSupport.Tasks<MultipartCompletedPart> parts = new TransferSupport.Tasks<>(executor);
+        long totalBytes = 0;
+
+        // Parts are read one after another, so presigning a part ahead keeps up with the reader; with an unknown
+        // length anything further could be wasted on parts past the end of the stream.
+        int lookahead = expectedLength >= 0 ? Math.min(options.getPresignLookahead(), bufferCount) : 1;
+        try (PresignedPartUrlPipeline presignedUrls = new PresignedPartUrlPipeline(client, documentId, sessionId, partNumbers,
+                lookahead, options.getPresignExpirySafetyMargin(), presignExecutor)) {
+            boolean endOfStream = false;
+            while (!endOfStream && !parts.isStopped()) {
+                ByteBuffer buffer = buffers.acquire();
+                endOfStream = readFully(channel, buffer);
+                buffer.flip();
+                int length = buffer.remaining();
+                if (length == 0) {
+                    buffers.release(buffer);
+                    break;
+                }
+                int part = parts.size() + 1;
+                if (part > maxParts) {
+                    buffers.release(buffer);
+                    throw new IOException(expectedLength >= 0
+                            ? "Stream is longer than the declared " + expectedLength + " bytes"
+                            : "Stream needs more than " + PartSizePolicy.MAX_PARTS + " parts of " + partSizeBytes + " bytes");
+                }
+                totalBytes += length;
+                parts.submit(() -> uploadPartWithRetry(presignedUrls, limiter, checksums, tracker, sessionId, part,
+                        new ByteBufferBodyPublisher(buffer), length), () -> buffers.release(buffer));
+            }
+
+            if (parts.size() == 0) {
+                throw new IllegalArgumentException("Cannot multipart-upload an empty stream");
+            }
+            if (!parts.isStopped() && expectedLength >= 0 && totalBytes != expectedLength) {
+                throw new IOException("Stream ended after " + totalBytes + " of the declared " + expectedLength + " bytes");
+            }
+            return new StreamedParts(parts.awaitAll(), totalBytes);
+        } catch (IOException | RuntimeException | InterruptedException e) {
+            // Let the parts in flight finish before the caller aborts the session
+            parts.stop();
+            throw e;
+        }
+    }
+
+    /**
+     * Fill the buffer from the channel
+     * @return true if the channel reached its end
+     */
+    private static boolean readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record StreamedParts(List<MultipartCompletedPart> parts, long totalBytes) {
+    }
+
+    private static int partCount(long size, int partSizeBytes) {
+        return (int) ((size + partSizeBytes - 1) / partSizeBytes);
+    }
+
+    private AdaptiveConcurrencyLimiter newLimiter() {
+        return options.isAdaptiveConcurrency()
+                ? new AdaptiveConcurrencyLimiter(options.getInitialParallelism(), 1, options.getParallelism())
+                : AdaptiveConcurrencyLimiter.fixed(options.getParallelism());
+    }
+
+    private static ByteBufferBodyPublisher mapPart(FileChannel channel, int partNumber, long offset, int length) {
+        try {
+            return ByteBufferBodyPublisher.ofFileRegion(channel, offset, length);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to map part " + partNumber, e);
+        }
+    }
+
+    private MultipartUploadResult complete(String documentId, String sessionId, String fileName, long fileSize, int partSizeBytes,
+                                           List<MultipartCompletedPart> completedParts, PartChecksums checksums, String lockId) {
+        completedParts.sort(Comparator.comparing(MultipartCompletedPart::getPartNumber));
+
+        MultipartUploadCompleteRequest completeRequest = new MultipartUploadCompleteRequest();
+        completeRequest.setParts(completedParts);
+        MultipartUploadCompleteResponse completeResponse =
+                client.completeMultipartUpload(documentId, sessionId, completeRequest, lockId);
+
+        MultipartUploadResult result = new MultipartUploadResult();
+        result.setDocumentId(documentId);
+        result.setSessionId(sessionId);
+        result.setAttachmentId(completeResponse != null ? completeResponse.getAttachmentId() : null);
+        result.setFileName(fileName);
+        result.setFileSize(fileSize);
+        result.setPartSizeBytes(partSizeBytes);
+        result.setParts(completedParts);
+        result.setCompleteResponse(completeResponse);
+        if (checksums.enabled()) {
+            result.setChecksumAlgorithm(checksums.algorithm());
+            result.setChecksum(checksums.composite(completedParts.size()));
+        }
+        return result;
+    }
+
+    private MultipartCompletedPart uploadPartWithRetry(PresignedPartUrlPipeline presignedUrls, AdaptiveConcurrencyLimiter limiter,
+                                                       PartChecksums checksums, TransferTracker tracker, String sessionId,
+                                                       int partNumber, ByteBufferBodyPublisher body, int length) {
+        // Computed once from the buffer about to be sent, right before the first attempt
+        byte[] checksum = checksums.enabled() ? checksums.compute(body.content()) : null;
+        long backoffMillis = options.getRetryBackoff().toMillis();
+        int maxAttempts = Math.max(1, options.getMaxPartAttempts());
+        for (int attempt = 1; ; attempt++) {
+            AtomicLong sent = new AtomicLong();
+            try {
+                limiter.acquire();
+                MultipartCompletedPart completedPart;
+                long startNanos = System.nanoTime();
+                try {
+                    completedPart = uploadPart(presignedUrls.urlFor(partNumber), partNumber,
+                            body.throttled(throttle()).tracked(bytes -> {
+                                sent.addAndGet(bytes);
+                                tracker.bytes(bytes);
+                            }), checksums, checksum);
+                } catch (Exception e) {
+                    limiter.onFailure();
+                    throw e;
+                }
+                limiter.onSuccess(length);
+                tracker.partCompleted(partNumber, length, System.nanoTime() - startNanos);
+                checksums.record(partNumber, checksum);
+                presignedUrls.release(partNumber);
+                return completedPart;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while uploading part " + partNumber, e);
+            } catch (Exception e) {
+                if (attempt >= maxAttempts) {
+                    throw new RuntimeException("Part " + partNumber + " failed after " + attempt + " attempts", e);
+                }
+                log.warn("Part {} of session {} failed (attempt {}/{}): {}", partNumber, sessionId, attempt, maxAttempts, e.getMessage());
+                tracker.retry(partNumber, attempt, sent.get(), e);
+                presignedUrls.invalidate(partNumber);
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while uploading part " + partNumber, interrupted);
+                }
+                backoffMillis *= 2;
+            }
+        }
+    }
+
+    private MultipartCompletedPart uploadPart(String presignedUrl, int partNumber, HttpRequest.BodyPublisher body,
+                                              PartChecksums checksums, byte[] checksum) throws IOException, InterruptedException {
+        HttpRequest.Builder putRequest = HttpRequest.newBuilder()
+                .uri(URI.create(presignedUrl))
+                .timeout(options.getPartTimeout())
+                .PUT(body);
+        if (checksum != null) {
+            putRequest.header(checksums.headerName(), PartChecksums.base64(checksum));
+        }
+
+        HttpResponse<Void> putResponse = httpClient.send(putRequest.build(), HttpResponse.BodyHandlers.discarding());
+        if (putResponse.statusCode() < 200 || putResponse.statusCode() >= 300) {
+            throw new IOException("Part upload failed. status=" + putResponse.statusCode() + ", part=" + partNumber);
+        }
+        String etag = putResponse.headers().firstValue("ETag").orElse(null);
+        if (etag == null || etag.isBlank()) {
+            throw new IOException("Missing ETag for part " + partNumber);
+        }
+        if (checksums.eTagMismatch(etag, checksum)) {
+            throw new IOException("ETag " + etag + " of part " + partNumber + " does not match the MD5 of the bytes sent");
+        }
+
+        MultipartCompletedPart completedPart = new MultipartCompletedPart();
+        completedPart.setPartNumber(partNumber);
+        completedPart.setETag(etag);
+        return completedPart;
+    }
+
+    private BandwidthScheduler.Throttle throttle() {
+        BandwidthScheduler scheduler = client.getBandwidthScheduler();
+        return scheduler != null ? scheduler.forTenant(client.getActiveTenant()) : null;
+    }
+
+    private void abortQuietly(String documentId, String sessionId, String lockId) {
+        try {
+            client.abortMultipartUpload(documentId, sessionId, lockId);
+        } catch (Exception e) {
+            log.warn("Failed to abort multipart session {}: {}", sessionId, e.getMessage());
+        }
+    }
+
+    private static String probeContentType(File file) {
+        try {
+            String contentType = Files.probeContentType(file.toPath());
+            if (contentType != null && !contentType.isBlank()) {
+                return contentType;
+            }
+        } catch (IOException ignored) {
+        }
+        return "application/octet-stream";
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        presignExecutor.shutdownNow();
+    }
+}
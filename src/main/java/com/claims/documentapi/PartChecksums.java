@@ -0,0 +1,124 @@
+package com.claims.documentapi;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32C;
+
+/**
+ * Per-part checksums of one multipart upload.
+ * A part's checksum is computed from the buffer that is about to be sent (the mapped file region or the pooled
+ * stream buffer), so the content is not read a second time from its source. The whole-file value is the S3-style
+ * composite: the checksum of the concatenated part checksums, suffixed with the part count.
+ */
+final class PartChecksums {
+
+    private final ChecksumAlgorithm algorithm;
+    private final Map<Integer, byte[]> parts = new ConcurrentHashMap<>();
+
+    PartChecksums(ChecksumAlgorithm algorithm) {
+        this.algorithm = algorithm != null ? algorithm : ChecksumAlgorithm.NONE;
+    }
+
+    ChecksumAlgorithm algorithm() {
+        return algorithm;
+    }
+
+    boolean enabled() {
+        return algorithm != ChecksumAlgorithm.NONE;
+    }
+
+    /**
+     * Checksum of the buffer's remaining bytes; the buffer's position is left untouched
+     */
+    byte[] compute(ByteBuffer content) {
+        return digest(algorithm, content.duplicate());
+    }
+
+    void record(int partNumber, byte[] checksum) {
+        if (checksum != null) {
+            parts.put(partNumber, checksum);
+        }
+    }
+
+    byte[] get(int partNumber) {
+        return parts.get(partNumber);
+    }
+
+    /**
+     * Request header carrying the part checksum, or null when disabled
+     */
+    String headerName() {
+        return switch (algorithm) {
+            case MD5 -> "Content-MD5";
+            case CRC32C -> "x-amz-checksum-crc32c";
+            case NONE -> null;
+        };
+    }
+
+    static String base64(byte[] checksum) {
+        return Base64.getEncoder().encodeToString(checksum);
+    }
+
+    /**
+     * Whether a part ETag contradicts the MD5 sent for it. Only plain 32-hex-digit ETags are compared; other
+     * forms (e.g. under SSE-KMS) are not content MD5s and are accepted.
+     */
+    boolean eTagMismatch(String eTag, byte[] checksum) {
+        if (algorithm != ChecksumAlgorithm.MD5 || checksum == null || eTag == null) {
+            return false;
+        }
+        String unquoted = eTag.replace("\"", "").trim();
+        if (unquoted.length() != 32 || !unquoted.chars().allMatch(c -> Character.digit(c, 16) >= 0)) {
+            return false;
+        }
+        return !unquoted.equalsIgnoreCase(HexFormat.of().formatHex(checksum));
+    }
+
+    /**
+     * Composite checksum over parts 1..totalParts, or null if disabled or a part's checksum is missing
+     */
+    String composite(int totalParts) {
+        if (!enabled()) {
+            return null;
+        }
+        int length = algorithm == ChecksumAlgorithm.MD5 ? 16 : 4;
+        ByteBuffer concatenated = ByteBuffer.allocate(length * totalParts);
+        for (int partNumber = 1; partNumber <= totalParts; partNumber++) {
+            byte[] checksum = parts.get(partNumber);
+            if (checksum == null) {
+                return null;
+            }
+            concatenated.put(checksum);
+        }
+        concatenated.flip();
+        byte[] composite = digest(algorithm, concatenated);
+        return (algorithm == ChecksumAlgorithm.MD5 ? HexFormat.of().formatHex(composite) : base64(composite)) + "-" + totalParts;
+    }
+
+    private static byte[] digest(ChecksumAlgorithm algorithm, ByteBuffer content) {
+        switch (algorithm) {
+            case MD5 -> {
+                try {
+                    MessageDigest md5 = MessageDigest.getInstance("MD5");
+                    md5.update(content);
+                    return md5.digest();
+                } catch (NoSuchAlgorithmException e) {
+                    throw new IllegalStateException("MD5 not available", e);
+                }
+            }
+            case CRC32C -> {
+                CRC32C crc = new CRC32C();
+                crc.update(content);
+                return ByteBuffer.allocate(4).putInt((int) crc.getValue()).array();
+            }
+            default -> {
+                return null;
+            }
+        }
+    }
+}
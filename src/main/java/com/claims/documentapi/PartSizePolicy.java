@@ -0,0 +1,44 @@
+package com.claims.documentapi;
+
+/**
+ * Picks the multipart part size from the file size.
+ * Small files go up in as few parts as the part-size floor allows, large files use bigger parts so the upload stays
+ * under the object store's part limit; in between the preferred size is used, shrunk just enough that the configured
+ * parallelism has parts to work on.
+ */
+final class PartSizePolicy {
+
+    /** Smallest part S3 accepts (except for the last part). */
+    static final int MIN_PART_SIZE_BYTES = 5 * 1024 * 1024;
+
+    /** Maximum number of parts in one S3 multipart upload. */
+    static final int MAX_PARTS = 10_000;
+
+    private static final int ALIGNMENT = 1024 * 1024;
+
+    private PartSizePolicy() {
+    }
+
+    static int partSizeFor(long fileSize, MultipartUploadOptions options) {
+        int minPartSize = Math.max(MIN_PART_SIZE_BYTES, options.getMinPartSizeBytes());
+        int maxPartSize = Math.max(minPartSize, options.getMaxPartSizeBytes());
+
+        // Single part when splitting would only produce parts below the floor.
+        if (fileSize < 2L * minPartSize) {
+            return (int) Math.min(Math.max(fileSize, 1), maxPartSize);
+        }
+
+        long partSize = options.getDefaultPartSizeBytes();
+        // Enough parts to keep every uploader busy, without going under the floor.
+        partSize = Math.min(partSize, ceilDiv(fileSize, Math.max(1, options.getParallelism())));
+        // Never more parts than the store allows.
+        partSize = Math.max(partSize, ceilDiv(fileSize, MAX_PARTS));
+
+        partSize = ceilDiv(partSize, ALIGNMENT) * ALIGNMENT;
+        return (int) Math.min(maxPartSize, Math.max(minPartSize, partSize));
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return (dividend + divisor - 1) / divisor;
+    }
+}
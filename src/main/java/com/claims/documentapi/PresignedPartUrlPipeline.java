@@ -0,0 +1,127 @@
+package com.claims.documentapi;
+
+import com.claims.documentapi.dto.MultipartPresignPartResponse;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Presigns multipart part URLs ahead of the part uploaders.
+ * A look-ahead window of parts is presigned in the background so a part's PUT can start as soon as a worker picks
+ * it up. URLs are re-presigned only when they would expire (minus a safety margin) before being used.
+ */
+final class PresignedPartUrlPipeline implements AutoCloseable {
+
+    private final DocumentApiClient client;
+    private final String documentId;
+    private final String sessionId;
+    private final List<Integer> partNumbers;
+    private final int lookahead;
+    private final long safetyMarginNanos;
+    private final Executor executor;
+    private final Map<Integer, CompletableFuture<PresignedUrl>> urls = new ConcurrentHashMap<>();
+
+    private int scheduled;
+    private volatile boolean closed;
+
+    /**
+     * @param partNumbers parts to be uploaded, in ascending order
+     */
+    PresignedPartUrlPipeline(DocumentApiClient client, String documentId, String sessionId, List<Integer> partNumbers,
+                             int lookahead, Duration safetyMargin, Executor executor) {
+        this.client = client;
+        this.documentId = documentId;
+        this.sessionId = sessionId;
+        this.partNumbers = List.copyOf(partNumbers);
+        this.lookahead = Math.max(0, lookahead);
+        this.safetyMarginNanos = safetyMargin.toNanos();
+        this.executor = executor;
+        scheduleThrough(this.lookahead - 1);
+    }
+
+    /**
+     * Presigned URL for the part, waiting only if it has not been presigned yet. Also extends the look-ahead window.
+     */
+    String urlFor(int partNumber) {
+        int index = Collections.binarySearch(partNumbers, partNumber);
+        if (index >= 0) {
+            scheduleThrough(index + lookahead);
+        }
+        PresignedUrl url = await(urls.computeIfAbsent(partNumber, this::presignAsync));
+        if (url.expiresBefore(System.nanoTime() + safetyMarginNanos)) {
+            url = presign(partNumber);
+            urls.put(partNumber, CompletableFuture.completedFuture(url));
+        }
+        return url.url();
+    }
+
+    /**
+     * Drop the cached URL so the next attempt for this part presigns again (e.g. after a rejected PUT)
+     */
+    void invalidate(int partNumber) {
+        urls.remove(partNumber);
+    }
+
+    /**
+     * Forget a part that has been uploaded
+     */
+    void release(int partNumber) {
+        urls.remove(partNumber);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        urls.values().forEach(f -> f.cancel(false));
+        urls.clear();
+    }
+
+    /**
+     * Make sure every part up to list position {@code index} (inclusive) has been presigned or is being presigned
+     */
+    private synchronized void scheduleThrough(int index) {
+        int last = Math.min(partNumbers.size() - 1, index);
+        while (!closed && scheduled <= last) {
+            urls.computeIfAbsent(partNumbers.get(scheduled++), this::presignAsync);
+        }
+    }
+
+    private CompletableFuture<PresignedUrl> presignAsync(int partNumber) {
+        return CompletableFuture.supplyAsync(() -> presign(partNumber), executor);
+    }
+
+    private PresignedUrl presign(int partNumber) {
+        long requestedAt = System.nanoTime();
+        MultipartPresignPartResponse response = client.presignMultipartUploadPart(documentId, sessionId, partNumber);
+        if (response == null || response.getPresignedUrl() == null || response.getPresignedUrl().isBlank()) {
+            throw new IllegalStateException("No presigned URL returned for part " + partNumber);
+        }
+        long expiresAt = response.getExpiresInSeconds() != null
+                ? requestedAt + Duration.ofSeconds(response.getExpiresInSeconds()).toNanos()
+                : Long.MAX_VALUE;
+        return new PresignedUrl(response.getPresignedUrl(), expiresAt);
+    }
+
+    private static PresignedUrl await(CompletableFuture<PresignedUrl> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private record PresignedUrl(String url, long expiresAtNanos) {
+        boolean expiresBefore(long nanoTime) {
+            return expiresAtNanos != Long.MAX_VALUE && expiresAtNanos - nanoTime < 0;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.claims.documentapi;
+
+import com.claims.documentapi.dto.DocumentDto;
+
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of presigned attachment download URLs keyed by (scope, document id, attachment id).
+ * The scope names whoever the URL was issued to (see {@link #scopeOf}); a URL is served only to lookups of the same scope,
+ * so a cache shared by clients of several tenants never hands one tenant's URL to another. The methods without a
+ * scope use the unscoped entries.
+ * An entry is served only while it stays valid for at least the safety margin, so a caller never receives a URL
+ * that expires while the download is starting. The expiry comes from the {@link DocumentDto} that embedded the URL,
+ * or from the URL's own signature parameters ({@code X-Amz-Date} + {@code X-Amz-Expires}, or {@code Expires}).
+ */
+public class PresignedUrlCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+    public static final Duration DEFAULT_SAFETY_MARGIN = Duration.ofSeconds(30);
+
+    private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+
+    private final int maxEntries;
+    private final Duration safetyMargin;
+    private final Duration defaultTtl;
+    private final Clock clock;
+    private final LinkedHashMap<Key, Entry> entries;
+
+    private record Key(String scope, String documentId, String attachmentId) {
+    }
+
+    private record Entry(String url, Instant expiresAt) {
+    }
+
+    public PresignedUrlCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_SAFETY_MARGIN, Duration.ZERO);
+    }
+
+    /**
+     * @param defaultTtl lifetime assumed for URLs whose expiry cannot be determined; zero leaves them uncached
+     */
+    public PresignedUrlCache(int maxEntries, Duration safetyMargin, Duration defaultTtl) {
+        this(maxEntries, safetyMargin, defaultTtl, Clock.systemUTC());
+    }
+
+    PresignedUrlCache(int maxEntries, Duration safetyMargin, Duration defaultTtl, Clock clock) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.safetyMargin = safetyMargin != null ? safetyMargin : Duration.ZERO;
+        this.defaultTtl = defaultTtl != null ? defaultTtl : Duration.ZERO;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > PresignedUrlCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * The cached URL, or {@code null} when absent or within the safety margin of its expiry
+     */
+    public String get(String documentId, String attachmentId) {
+        return get(null, documentId, attachmentId);
+    }
+
+    /**
+     * The URL cached for the scope, or {@code null} when absent or within the safety margin of its expiry
+     */
+    public synchronized String get(String scope, String documentId, String attachmentId) {
+        Key key = new Key(scope, documentId, attachmentId);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (!isUsable(entry.expiresAt())) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.url();
+    }
+
+    /**
+     * Cache a URL; {@code expiresAt} may be null, in which case it is read from the URL or the default TTL applies
+     */
+    public void put(String documentId, String attachmentId, String url, Instant expiresAt) {
+        put(null, documentId, attachmentId, url, expiresAt);
+    }
+
+    /**
+     * Cache a URL issued to the scope; see {@link #put(String, String, String, Instant)}
+     */
+    public void put(String scope, String documentId, String attachmentId, String url, Instant expiresAt) {
+        if (documentId == null || attachmentId == null || url == null || url.isBlank()) {
+            return;
+        }
+        Instant expiry = expiresAt != null ? expiresAt : expiryOf(url);
+        if (expiry == null) {
+            if (defaultTtl.isZero() || defaultTtl.isNegative()) {
+                return;
+            }
+            expiry = clock.instant().plus(defaultTtl);
+        }
+        if (!isUsable(expiry)) {
+            return;
+        }
+        synchronized (this) {
+            entries.put(new Key(scope, documentId, attachmentId), new Entry(url, expiry));
+        }
+    }
+
+    /**
+     * Cache the presigned URLs embedded in listed attachments
+     */
+    public void putAll(String documentId, Iterable<DocumentDto> attachments) {
+        putAll(null, documentId, attachments);
+    }
+
+    /**
+     * Cache the presigned URLs embedded in attachments listed for the scope
+     */
+    public void putAll(String scope, String documentId, Iterable<DocumentDto> attachments) {
+        if (attachments == null) {
+            return;
+        }
+        for (DocumentDto attachment : attachments) {
+            if (attachment != null) {
+                String owner = attachment.getDocumentId() != null ? attachment.getDocumentId() : documentId;
+                put(scope, owner, attachment.getId(), attachment.getPresignedUrl(), attachment.getPresignedUrlExpiresAt());
+            }
+        }
+    }
+
+    public void invalidate(String documentId, String attachmentId) {
+        invalidate(null, documentId, attachmentId);
+    }
+
+    public synchronized void invalidate(String scope, String documentId, String attachmentId) {
+        entries.remove(new Key(scope, documentId, attachmentId));
+    }
+
+    /**
+     * Drop every URL cached for a document, in every scope
+     */
+    public synchronized void invalidateDocument(String documentId) {
+        entries.keySet().removeIf(key -> key.documentId().equals(documentId));
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Scope of the URLs fetched with a bearer token for a tenant: the token when there is one (URLs are then shared
+     * only by calls made as the same principal), else the tenant. Only a digest of the token is kept.
+     */
+    public static String scopeOf(String tenant, String token) {
+        if (token == null || token.isBlank()) {
+            return "tenant:" + tenant;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return "token:" + HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private boolean isUsable(Instant expiresAt) {
+        return clock.instant().plus(safetyMargin).isBefore(expiresAt);
+    }
+
+    /**
+     * Expiry encoded in an S3-style presigned URL, or {@code null} if it carries none
+     */
+    static Instant expiryOf(String url) {
+        String query;
+        try {
+            query = URI.create(url.trim()).getRawQuery();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (query == null) {
+            return null;
+        }
+        Map<String, String> params = new HashMap<>();
+        for (String param : query.split("&")) {
+            int eq = param.indexOf('=');
+            if (eq > 0) {
+                params.put(param.substring(0, eq).toLowerCase(),
+                        URLDecoder.decode(param.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        try {
+            String date = params.get("x-amz-date");
+            String expires = params.get("x-amz-expires");
+            if (date != null && expires != null) {
+                return LocalDateTime.parse(date, AMZ_DATE).toInstant(ZoneOffset.UTC).plusSeconds(Long.parseLong(expires));
+            }
+            if (params.containsKey("expires")) {
+                return Instant.ofEpochSecond(Long.parseLong(params.get("expires")));
+            }
+        } catch (DateTimeParseException | NumberFormatException ignored) {
+        }
+        return null;
+    }
+}
@@ -0,0 +1,109 @@
+package com.claims.documentapi;
+
+import com.claims.documentapi.dto.LoginRequest;
+import com.claims.documentapi.dto.LoginResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logs in again for a tenant whose token was rejected with 401, once however many calls are rejected together.
+ * The first call to fail performs the login; the others wait for its result and are replayed with the same new
+ * token. A call rejected with a token that has already been replaced is replayed at once, without logging in.
+ * <p>
+ * Created through {@link DocumentApiClient#enableReauthentication}.
+ */
+@Slf4j
+final class Reauthenticator {
+
+    private final DocumentApiClient client;
+    private final CredentialProvider credentials;
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong logins = new AtomicLong();
+
+    Reauthenticator(DocumentApiClient client, CredentialProvider credentials) {
+        if (client == null || credentials == null) {
+            throw new IllegalArgumentException("Client and credential provider cannot be null");
+        }
+        this.client = client;
+        this.credentials = credentials;
+    }
+
+    /**
+     * Token to replay a call with after the tenant rejected {@code rejectedToken}
+     * @param deadline how long the caller may wait for a login in progress; null waits for it to finish
+     * @return the new token, or {@code null} if there are no credentials for the tenant
+     */
+    String reauthenticate(String tenant, String rejectedToken, Instant deadline) {
+        String current = client.storedToken(tenant);
+        if (current != null && !current.equals(rejectedToken)) {
+            return current;
+        }
+        CompletableFuture<String> flight = new CompletableFuture<>();
+        CompletableFuture<String> leader = inFlight.putIfAbsent(tenant, flight);
+        if (leader != null) {
+            return await(leader, deadline);
+        }
+        try {
+            flight.complete(login(tenant, rejectedToken));
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+        } finally {
+            inFlight.remove(tenant, flight);
+        }
+        return await(flight, deadline);
+    }
+
+    /**
+     * Logins performed so far
+     */
+    long getLogins() {
+        return logins.get();
+    }
+
+    private String login(String tenant, String rejectedToken) {
+        // A login that finished just before this one started has already replaced the token
+        String current = client.storedToken(tenant);
+        if (current != null && !current.equals(rejectedToken)) {
+            return current;
+        }
+        LoginRequest login = credentials.credentialsFor(tenant);
+        if (login == null) {
+            log.debug("No credentials for tenant {}; rejected calls are not replayed", tenant);
+            return null;
+        }
+        logins.incrementAndGet();
+        log.debug("Token for tenant {} was rejected; logging in again", tenant);
+        LoginResponse response = client.forTenant(tenant).login(login);
+        return response != null ? response.getToken() : null;
+    }
+
+    private static String await(CompletableFuture<String> flight, Instant deadline) {
+        try {
+            if (deadline == null) {
+                return flight.get();
+            }
+            long remainingMillis = Duration.between(Instant.now(), deadline).toMillis();
+            return flight.get(Math.max(0, remainingMillis), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Re-authentication failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new ResourceAccessException("Request deadline " + deadline + " passed while logging in again");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for re-authentication", e);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.claims.documentapi;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Immutable settings of the calls made through a scoped client (see {@link DocumentApiClient#withContext}).
+ * A context is a plain value: build one per request, or keep one per tenant and derive variants with the
+ * {@code with...} methods.
+ */
+@Getter
+@Builder(toBuilder = true)
+public class RequestContext {
+
+    /** Tenant the calls are made for; selects the stored token and the tenant's bandwidth share. */
+    private final String tenant;
+
+    /** Bearer token; when null the token the client holds for {@link #tenant} is used. */
+    private final String token;
+
+    /** Lock held on the document, sent with calls that do not pass their own. */
+    private final String lockId;
+
+    /** Calls are not started after this instant and wait for a response at most until it; null means none. */
+    private final Instant deadline;
+
+    public static RequestContext forTenant(String tenant) {
+        return builder().tenant(tenant).build();
+    }
+
+    public RequestContext withToken(String token) {
+        return toBuilder().token(token).build();
+    }
+
+    public RequestContext withLockId(String lockId) {
+        return toBuilder().lockId(lockId).build();
+    }
+
+    public RequestContext withDeadline(Instant deadline) {
+        return toBuilder().deadline(deadline).build();
+    }
+
+    /**
+     * This context with a deadline {@code timeout} from now
+     */
+    public RequestContext withTimeout(Duration timeout) {
+        return withDeadline(Instant.now().plus(timeout));
+    }
+
+    /**
+     * Time left until the deadline (negative once it has passed), or {@code null} without a deadline
+     */
+    public Duration remaining() {
+        return deadline != null ? Duration.between(Instant.now(), deadline) : null;
+    }
+}
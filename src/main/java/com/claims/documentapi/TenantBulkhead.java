@@ -0,0 +1,236 @@
+package com.claims.documentapi;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-tenant limit on the API calls in flight over a shared connection pool.
+ * Each tenant gets its own compartment: at most {@code maxConcurrent} of its calls run at once, up to
+ * {@code maxQueued} more wait (at most {@code maxWait}) for one of them to finish, and any further call is rejected
+ * with a {@link BulkheadFullException} straight away. A burst from one tenant therefore fills its own compartment
+ * instead of the connection pool, and the other tenants' calls keep finding free connections. Keep the sum of the
+ * tenants' limits at or below the pool's connections per route.
+ * <p>
+ * One instance is meant to be shared: set it on every client with {@code setBulkhead}.
+ */
+public class TenantBulkhead {
+
+    public static final String DEFAULT_TENANT = "default";
+
+    private final int defaultMaxConcurrent;
+    private final int defaultMaxQueued;
+    private final Duration maxWait;
+    private final Map<String, Compartment> compartments = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxConcurrent calls of one tenant in flight at once, unless set per tenant
+     * @param maxQueued calls of one tenant waiting for a slot, unless set per tenant; 0 rejects at once when full
+     * @param maxWait longest a queued call waits before it is rejected
+     */
+    public TenantBulkhead(int maxConcurrent, int maxQueued, Duration maxWait) {
+        validate(maxConcurrent, maxQueued);
+        if (maxWait == null || maxWait.isNegative()) {
+            throw new IllegalArgumentException("maxWait cannot be null or negative");
+        }
+        this.defaultMaxConcurrent = maxConcurrent;
+        this.defaultMaxQueued = maxQueued;
+        this.maxWait = maxWait;
+    }
+
+    public Duration getMaxWait() {
+        return maxWait;
+    }
+
+    /**
+     * Limits of one tenant; calls already waiting are admitted at once if the new limit allows
+     */
+    public void setLimits(String tenant, int maxConcurrent, int maxQueued) {
+        validate(maxConcurrent, maxQueued);
+        compartment(tenant).setLimits(maxConcurrent, maxQueued);
+    }
+
+    /**
+     * Take a slot for a call of the tenant, waiting at most {@link #getMaxWait()} for one
+     * @throws BulkheadFullException if the tenant's queue is full or no slot freed up in time
+     */
+    public Permit acquire(String tenant) throws InterruptedException {
+        return acquire(tenant, maxWait);
+    }
+
+    /**
+     * Take a slot for a call of the tenant, waiting at most {@code wait} (and never longer than {@link #getMaxWait()})
+     * @throws BulkheadFullException if the tenant's queue is full or no slot freed up in time
+     */
+    public Permit acquire(String tenant, Duration wait) throws InterruptedException {
+        Duration bounded = wait == null || wait.compareTo(maxWait) > 0 ? maxWait : wait;
+        Compartment compartment = compartment(tenant);
+        compartment.acquire(bounded.isNegative() ? 0 : bounded.toNanos());
+        return new Permit(compartment);
+    }
+
+    /**
+     * Current state and counters of one tenant's compartment
+     */
+    public Stats getStats(String tenant) {
+        return compartment(tenant).stats();
+    }
+
+    /**
+     * State and counters of every tenant that has made calls or has limits set
+     */
+    public List<Stats> getStats() {
+        List<Stats> stats = new ArrayList<>(compartments.size());
+        compartments.values().forEach(compartment -> stats.add(compartment.stats()));
+        return stats;
+    }
+
+    private Compartment compartment(String tenant) {
+        String key = tenant != null && !tenant.isBlank() ? tenant : DEFAULT_TENANT;
+        return compartments.computeIfAbsent(key, t -> new Compartment(t, defaultMaxConcurrent, defaultMaxQueued));
+    }
+
+    private static void validate(int maxConcurrent, int maxQueued) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("maxConcurrent must be at least 1");
+        }
+        if (maxQueued < 0) {
+            throw new IllegalArgumentException("maxQueued cannot be negative");
+        }
+    }
+
+    /**
+     * A slot held by one call; close it when the call has finished
+     */
+    public static final class Permit implements AutoCloseable {
+
+        private final Compartment compartment;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Compartment compartment) {
+            this.compartment = compartment;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                compartment.release();
+            }
+        }
+    }
+
+    /**
+     * @param active calls in flight now
+     * @param queued calls waiting for a slot now
+     * @param admitted calls that got a slot so far
+     * @param delayed calls among those that had to wait for their slot
+     * @param rejected calls refused because the queue was full or their wait ran out
+     */
+    public record Stats(String tenant,
+                        int maxConcurrent,
+                        int maxQueued,
+                        int active,
+                        int queued,
+                        long admitted,
+                        long delayed,
+                        long rejected) {
+    }
+
+    private static final class Compartment {
+
+        private final String tenant;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition slotFreed = lock.newCondition();
+
+        private int maxConcurrent;
+        private int maxQueued;
+        private int active;
+        private int queued;
+        private long admitted;
+        private long delayed;
+        private long rejected;
+
+        private Compartment(String tenant, int maxConcurrent, int maxQueued) {
+            this.tenant = tenant;
+            this.maxConcurrent = maxConcurrent;
+            this.maxQueued = maxQueued;
+        }
+
+        void acquire(long waitNanos) throws InterruptedException {
+            lock.lockInterruptibly();
+            try {
+                // Callers already waiting go first
+                if (active < maxConcurrent && queued == 0) {
+                    active++;
+                    admitted++;
+                    return;
+                }
+                if (queued >= maxQueued || waitNanos <= 0) {
+                    rejected++;
+                    throw new BulkheadFullException(tenant, "Too many calls for tenant " + tenant + ": "
+                            + active + " in flight, " + queued + " queued");
+                }
+                queued++;
+                try {
+                    long remaining = waitNanos;
+                    while (active >= maxConcurrent) {
+                        if (remaining <= 0) {
+                            rejected++;
+                            throw new BulkheadFullException(tenant, "No free slot for tenant " + tenant + " within "
+                                    + Duration.ofNanos(waitNanos));
+                        }
+                        try {
+                            remaining = slotFreed.awaitNanos(remaining);
+                        } catch (InterruptedException e) {
+                            // Pass on a wake-up this caller may have consumed
+                            slotFreed.signal();
+                            throw e;
+                        }
+                    }
+                    active++;
+                    admitted++;
+                    delayed++;
+                } finally {
+                    queued--;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void release() {
+            lock.lock();
+            try {
+                active--;
+                slotFreed.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void setLimits(int maxConcurrent, int maxQueued) {
+            lock.lock();
+            try {
+                this.maxConcurrent = maxConcurrent;
+                this.maxQueued = maxQueued;
+                slotFreed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        Stats stats() {
+            lock.lock();
+            try {
+                return new Stats(tenant, maxConcurrent, maxQueued, active, queued, admitted, delayed, rejected);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
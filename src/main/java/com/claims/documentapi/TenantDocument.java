@@ -0,0 +1,9 @@
+package com.claims.documentapi;
+
+import com.claims.documentapi.dto.DocumentResponse;
+
+/**
+ * A search result together with the tenant it was found in, as returned by a cross-tenant search.
+ */
+public record TenantDocument(String tenant, DocumentResponse document) {
+}
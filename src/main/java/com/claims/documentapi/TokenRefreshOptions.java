@@ -0,0 +1,32 @@
+package com.claims.documentapi;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Settings for {@link TokenRefresher}.
+ */
+@Getter
+@Builder(toBuilder = true)
+public class TokenRefreshOptions {
+
+    /** How long before expiry a token is replaced; capped at a fifth of the token's lifetime. */
+    @Builder.Default
+    private final Duration refreshAhead = Duration.ofMinutes(2);
+
+    /** Lifetime assumed for tokens that carry no expiry (not a JWT with {@code exp}); null leaves them alone. */
+    private final Duration defaultTokenTtl;
+
+    /** Delay before retrying a failed refresh; doubled on each further failure. */
+    @Builder.Default
+    private final Duration retryBackoff = Duration.ofSeconds(5);
+
+    @Builder.Default
+    private final Duration maxRetryBackoff = Duration.ofMinutes(1);
+
+    public static TokenRefreshOptions defaults() {
+        return builder().build();
+    }
+}
@@ -0,0 +1,175 @@
+package com.claims.documentapi;
+
+import com.claims.documentapi.dto.LoginRequest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs in again for each tenant shortly before its token expires, so requests never wait for a login.
+ * The expiry is read from the token's JWT {@code exp} claim, from {@code expiresIn} when the server sends it, or
+ * assumed from {@link TokenRefreshOptions#getDefaultTokenTtl()}. Refreshes run on a background thread with the
+ * credentials of the {@link CredentialProvider}; a failed refresh is retried with backoff while the current token
+ * stays in use.
+ * <p>
+ * Created through {@link DocumentApiClient#enableTokenRefresh}, which reports every token the client stores.
+ */
+@Slf4j
+public class TokenRefresher implements AutoCloseable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final DocumentApiClient client;
+    private final CredentialProvider credentials;
+    private final TokenRefreshOptions options;
+    private final ScheduledExecutorService scheduler;
+    private final Map<String, Instant> expiries = new ConcurrentHashMap<>();
+    private final Map<String, ScheduledFuture<?>> refreshes = new ConcurrentHashMap<>();
+
+    TokenRefresher(DocumentApiClient client, CredentialProvider credentials, TokenRefreshOptions options) {
+        if (client == null || credentials == null) {
+            throw new IllegalArgumentException("Client and credential provider cannot be null");
+        }
+        this.client = client;
+        this.credentials = credentials;
+        this.options = options != null ? options : TokenRefreshOptions.defaults();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "token-refresh");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Expiry of the tenant's current token, or {@code null} when unknown
+     */
+    public Instant getExpiry(String tenant) {
+        return tenant != null ? expiries.get(tenant) : null;
+    }
+
+    /**
+     * A token was stored for the tenant: schedule its replacement
+     * @param expiresInSeconds lifetime reported by the server, or null
+     */
+    void tokenIssued(String tenant, String token, Long expiresInSeconds) {
+        if (tenant == null || tenant.isBlank()) {
+            return;
+        }
+        if (token == null || token.isBlank()) {
+            cancel(tenant);
+            return;
+        }
+        Instant issuedAt = Instant.now();
+        Instant expiry = jwtExpiry(token);
+        if (expiry == null && expiresInSeconds != null && expiresInSeconds > 0) {
+            expiry = issuedAt.plusSeconds(expiresInSeconds);
+        }
+        if (expiry == null && options.getDefaultTokenTtl() != null) {
+            expiry = issuedAt.plus(options.getDefaultTokenTtl());
+        }
+        if (expiry == null) {
+            log.debug("Token for tenant {} has no known expiry; it will not be refreshed", tenant);
+            cancel(tenant);
+            return;
+        }
+        if (!expiry.isAfter(issuedAt)) {
+            // Refreshing would only fetch another such token, in a tight loop; a rejected call logs in again instead
+            log.warn("Token for tenant {} expired at {}, before it was received; it will not be refreshed", tenant, expiry);
+            cancel(tenant);
+            expiries.put(tenant, expiry);
+            return;
+        }
+        expiries.put(tenant, expiry);
+        Duration lifetime = Duration.between(issuedAt, expiry);
+        Duration ahead = min(options.getRefreshAhead(), lifetime.dividedBy(5));
+        // A token that lives only briefly (or a skewed clock) must not make logins follow each other back to back
+        Duration delay = max(Duration.between(issuedAt, expiry.minus(ahead)), options.getRetryBackoff());
+        schedule(tenant, delay, options.getRetryBackoff());
+    }
+
+    /**
+     * Stop refreshing the tenant's token
+     */
+    void cancel(String tenant) {
+        expiries.remove(tenant);
+        ScheduledFuture<?> previous = refreshes.remove(tenant);
+        if (previous != null) {
+            previous.cancel(false);
+        }
+    }
+
+    void cancelAll() {
+        refreshes.keySet().forEach(this::cancel);
+        expiries.clear();
+    }
+
+    private void schedule(String tenant, Duration delay, Duration nextBackoff) {
+        if (scheduler.isShutdown()) {
+            return;
+        }
+        ScheduledFuture<?> refresh = scheduler.schedule(() -> refresh(tenant, nextBackoff),
+                Math.max(0, delay.toMillis()), TimeUnit.MILLISECONDS);
+        ScheduledFuture<?> previous = refreshes.put(tenant, refresh);
+        if (previous != null && previous != refresh) {
+            previous.cancel(false);
+        }
+    }
+
+    private void refresh(String tenant, Duration backoff) {
+        LoginRequest login = credentials.credentialsFor(tenant);
+        if (login == null) {
+            log.debug("No credentials for tenant {}; its token will not be refreshed", tenant);
+            return;
+        }
+        try {
+            // Logging in through a scoped client stores the new token, which schedules the next refresh
+            client.forTenant(tenant).login(login);
+            log.debug("Refreshed token for tenant {}", tenant);
+        } catch (RuntimeException e) {
+            log.warn("Failed to refresh token for tenant {}, retrying in {}: {}", tenant, backoff, e.getMessage());
+            schedule(tenant, backoff, min(backoff.multipliedBy(2), options.getMaxRetryBackoff()));
+        }
+    }
+
+    /**
+     * The {@code exp} claim of a JWT, or {@code null} if the token is not a JWT or has none
+     */
+    static Instant jwtExpiry(String token) {
+        String[] parts = token.split("\\.");
+        if (parts.length < 2) {
+            return null;
+        }
+        try {
+            JsonNode exp = MAPPER.readTree(Base64.getUrlDecoder().decode(parts[1])).get("exp");
+            return exp != null && exp.canConvertToLong() ? Instant.ofEpochSecond(exp.asLong()) : null;
+        } catch (IllegalArgumentException | IOException e) {
+            return null;
+        }
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    private static Duration max(Duration a, Duration b) {
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        refreshes.clear();
+        expiries.clear();
+    }
+}
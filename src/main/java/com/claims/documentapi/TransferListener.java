@@ -0,0 +1,40 @@
+package com.claims.documentapi;
+
+import java.time.Duration;
+
+/**
+ * Receives progress of attachment transfers: batch uploads, multipart uploads and downloads.
+ * Set one on a client with {@code setTransferListener}; every transfer made through that client reports to it.
+ * <p>
+ * Callbacks run on a dedicated event thread, never on the threads moving the bytes, so a slow listener delays only
+ * other events. Events of one transfer arrive in order. Byte progress is coalesced: {@link #onProgress} fires at
+ * most every {@link TransferTracker#PROGRESS_INTERVAL_MILLIS} ms per transfer, with the latest totals.
+ */
+public interface TransferListener {
+
+    default void onStarted(TransferProgress progress) {
+    }
+
+    default void onProgress(TransferProgress progress) {
+    }
+
+    /**
+     * A part (multipart upload) or range (download) finished
+     * @param latency time taken by the successful attempt
+     */
+    default void onPartCompleted(TransferProgress progress, int partNumber, long bytes, Duration latency) {
+    }
+
+    /**
+     * A part or range failed and is about to be retried; its bytes are no longer counted as transferred
+     * @param attempt the attempt that failed
+     */
+    default void onRetry(TransferProgress progress, int partNumber, int attempt, Throwable cause) {
+    }
+
+    default void onCompleted(TransferProgress progress) {
+    }
+
+    default void onFailed(TransferProgress progress, Throwable cause) {
+    }
+}
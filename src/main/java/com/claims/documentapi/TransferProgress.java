@@ -0,0 +1,42 @@
+package com.claims.documentapi;
+
+import java.time.Duration;
+
+/**
+ * Snapshot of one transfer, as reported to a {@link TransferListener}.
+ * @param transferId identifies the transfer across its events
+ * @param name file name, or a description of a batch
+ * @param totalBytes content size, -1 while unknown
+ * @param totalParts parts or ranges the content is moved in, -1 while unknown
+ * @param retries failed attempts of parts so far
+ * @param averageBytesPerSecond bytes transferred since the start divided by the elapsed time
+ * @param currentBytesPerSecond throughput over the interval since the previous snapshot
+ */
+public record TransferProgress(long transferId,
+                               Direction direction,
+                               String documentId,
+                               String name,
+                               long totalBytes,
+                               long bytesTransferred,
+                               int totalParts,
+                               int partsCompleted,
+                               int retries,
+                               Duration elapsed,
+                               double averageBytesPerSecond,
+                               double currentBytesPerSecond) {
+
+    public enum Direction {
+        UPLOAD,
+        DOWNLOAD
+    }
+
+    /**
+     * Fraction of the content transferred, between 0 and 1; -1 while the size is unknown
+     */
+    public double fraction() {
+        if (totalBytes < 0) {
+            return -1;
+        }
+        return totalBytes == 0 ? 1 : Math.min(1.0, (double) bytesTransferred / totalBytes);
+    }
+}
@@ -0,0 +1,127 @@
+package com.claims.documentapi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Threading helpers shared by the upload and download engines.
+ */
+final class TransferSupport {
+
+    private TransferSupport() {
+    }
+
+    static ExecutorService newDaemonPool(int threads, String namePrefix) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, namePrefix + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Tasks of one transfer, run on a shared executor. Once one of them fails, those not yet started are skipped,
+     * and {@link #awaitAll()} returns only after every started task has finished: the channels, buffers and URLs the
+     * tasks use can then be released, and the transfer aborted, without a task still writing or uploading.
+     */
+    static final class Tasks<T> {
+
+        private final Executor executor;
+        private final List<CompletableFuture<T>> results = new ArrayList<>();
+        private final List<CompletableFuture<Void>> runs = new ArrayList<>();
+        private final AtomicBoolean stopped = new AtomicBoolean();
+
+        Tasks(Executor executor) {
+            this.executor = executor;
+        }
+
+        /**
+         * Run a task unless the transfer has already stopped
+         */
+        CompletableFuture<T> submit(Supplier<T> task) {
+            return submit(task, null);
+        }
+
+        /**
+         * Run a task unless the transfer has already stopped
+         * @param release run once the task has finished or been skipped, e.g. to return a buffer it was handed
+         */
+        CompletableFuture<T> submit(Supplier<T> task, Runnable release) {
+            CompletableFuture<T> result = new CompletableFuture<>();
+            runs.add(CompletableFuture.runAsync(() -> {
+                try {
+                    if (stopped.get()) {
+                        result.cancel(false);
+                    } else {
+                        result.complete(task.get());
+                    }
+                } catch (Throwable e) {
+                    stopped.set(true);
+                    result.completeExceptionally(e);
+                } finally {
+                    if (release != null) {
+                        release.run();
+                    }
+                }
+            }, executor));
+            results.add(result);
+            return result;
+        }
+
+        int size() {
+            return results.size();
+        }
+
+        /**
+         * Whether a task has failed or the transfer was stopped
+         */
+        boolean isStopped() {
+            return stopped.get();
+        }
+
+        /**
+         * Wait for every task, failing with the first failure once the tasks still running have finished
+         */
+        List<T> awaitAll() {
+            CompletableFuture<Void> all = CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0]));
+            CompletableFuture<Void> firstFailure = new CompletableFuture<>();
+            results.forEach(f -> f.whenComplete((value, error) -> {
+                if (error != null) {
+                    firstFailure.completeExceptionally(error);
+                }
+            }));
+            try {
+                CompletableFuture.anyOf(all, firstFailure).join();
+            } catch (CompletionException e) {
+                stop();
+                throw e;
+            }
+            List<T> values = new ArrayList<>(results.size());
+            for (CompletableFuture<T> result : results) {
+                values.add(result.join());
+            }
+            return values;
+        }
+
+        /**
+         * Skip the tasks not yet started and wait for the running ones to finish
+         */
+        void stop() {
+            stopped.set(true);
+            CompletableFuture.allOf(runs.toArray(new CompletableFuture<?>[0])).join();
+        }
+    }
+
+    static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+}
@@ -0,0 +1,222 @@
+package com.claims.documentapi;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Counts the bytes, parts and retries of one transfer and reports them to a {@link TransferListener}.
+ * The transfer threads only update counters and hand events to a shared event thread; snapshots, including the
+ * throughput figures, are taken on that thread when an event is delivered. Without a listener every call is a no-op.
+ */
+@Slf4j
+final class TransferTracker {
+
+    static final long PROGRESS_INTERVAL_MILLIS = 200;
+
+    /** Shortest interval the current throughput is measured over, so back-to-back events do not report spikes. */
+    private static final long MIN_RATE_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final AtomicLong TRANSFER_IDS = new AtomicLong();
+    private static final ExecutorService EVENTS = TransferSupport.newDaemonPool(1, "transfer-events-");
+
+    private final TransferListener listener;
+    private final long transferId;
+    private final TransferProgress.Direction direction;
+    private final String documentId;
+    private final String name;
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicInteger parts = new AtomicInteger();
+    private final AtomicInteger retries = new AtomicInteger();
+    private final AtomicBoolean progressPending = new AtomicBoolean();
+    private volatile long totalBytes;
+    private volatile int totalParts;
+    /** Bytes transferred by an earlier attempt (resumed uploads); excluded from the throughput. */
+    private volatile long resumedBytes;
+    private volatile boolean finished;
+    private volatile long lastProgressNanos = startNanos;
+
+    // Only touched on the event thread
+    private long lastSnapshotNanos = startNanos;
+    private long lastSnapshotBytes;
+    private double currentBytesPerSecond;
+
+    private TransferTracker(TransferListener listener, TransferProgress.Direction direction, String documentId, String name,
+                            long totalBytes, int totalParts) {
+        this.listener = listener;
+        this.transferId = listener != null ? TRANSFER_IDS.incrementAndGet() : 0;
+        this.direction = direction;
+        this.documentId = documentId;
+        this.name = name;
+        this.totalBytes = totalBytes;
+        this.totalParts = totalParts;
+    }
+
+    /**
+     * Start tracking a transfer, reporting it as started
+     * @param listener may be null, in which case nothing is tracked
+     */
+    static TransferTracker start(TransferListener listener, TransferProgress.Direction direction, String documentId,
+                                 String name, long totalBytes, int totalParts) {
+        TransferTracker tracker = new TransferTracker(listener, direction, documentId, name, totalBytes, totalParts);
+        tracker.post(TransferListener::onStarted);
+        return tracker;
+    }
+
+    /**
+     * Totals learned once the transfer is under way
+     */
+    void setTotals(long totalBytes, int totalParts) {
+        this.totalBytes = totalBytes;
+        this.totalParts = totalParts;
+    }
+
+    /**
+     * Parts already transferred by an earlier attempt of a resumed transfer
+     */
+    void resumed(long bytes, int parts) {
+        if (listener == null) {
+            return;
+        }
+        resumedBytes += bytes;
+        this.bytes.addAndGet(bytes);
+        this.parts.addAndGet(parts);
+    }
+
+    void bytes(long delta) {
+        if (listener == null) {
+            return;
+        }
+        bytes.addAndGet(delta);
+        if (progressPending.compareAndSet(false, true)) {
+            long delayNanos = lastProgressNanos + TimeUnit.MILLISECONDS.toNanos(PROGRESS_INTERVAL_MILLIS) - System.nanoTime();
+            Executor executor = delayNanos > 0
+                    ? CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS, EVENTS)
+                    : EVENTS;
+            executor.execute(this::deliverProgress);
+        }
+    }
+
+    /**
+     * Bytes counted so far
+     */
+    long transferred() {
+        return bytes.get();
+    }
+
+    void partCompleted(int partNumber, long partBytes, long latencyNanos) {
+        if (listener == null) {
+            return;
+        }
+        parts.incrementAndGet();
+        Duration latency = Duration.ofNanos(latencyNanos);
+        post((l, progress) -> l.onPartCompleted(progress, partNumber, partBytes, latency));
+    }
+
+    /**
+     * A part attempt failed and will be retried
+     * @param sentBytes bytes of the failed attempt already counted, taken back out of the total
+     */
+    void retry(int partNumber, int attempt, long sentBytes, Throwable cause) {
+        if (listener == null) {
+            return;
+        }
+        bytes.addAndGet(-sentBytes);
+        retries.incrementAndGet();
+        post((l, progress) -> l.onRetry(progress, partNumber, attempt, cause));
+    }
+
+    void completed() {
+        if (listener != null) {
+            finished = true;
+            post(TransferListener::onCompleted);
+        }
+    }
+
+    void failed(Throwable cause) {
+        if (listener != null) {
+            finished = true;
+            post((l, progress) -> l.onFailed(progress, cause));
+        }
+    }
+
+    /**
+     * Count the bytes written through a blocking stream
+     */
+    OutputStream wrap(OutputStream out) {
+        return listener != null ? new CountingOutputStream(out, this) : out;
+    }
+
+    private void post(BiConsumer<TransferListener, TransferProgress> event) {
+        if (listener == null) {
+            return;
+        }
+        EVENTS.execute(() -> deliver(l -> event.accept(l, snapshot())));
+    }
+
+    private void deliverProgress() {
+        progressPending.set(false);
+        if (finished) {
+            return;
+        }
+        lastProgressNanos = System.nanoTime();
+        deliver(l -> l.onProgress(snapshot()));
+    }
+
+    private void deliver(Consumer<TransferListener> event) {
+        try {
+            event.accept(listener);
+        } catch (RuntimeException e) {
+            log.warn("Transfer listener failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private TransferProgress snapshot() {
+        long now = System.nanoTime();
+        long transferred = bytes.get();
+        long interval = now - lastSnapshotNanos;
+        if (interval >= MIN_RATE_INTERVAL_NANOS) {
+            currentBytesPerSecond = Math.max(0, (transferred - lastSnapshotBytes) * 1e9 / interval);
+            lastSnapshotNanos = now;
+            lastSnapshotBytes = transferred;
+        }
+        long elapsedNanos = now - startNanos;
+        double average = elapsedNanos > 0 ? Math.max(0, (transferred - resumedBytes) * 1e9 / elapsedNanos) : 0;
+        return new TransferProgress(transferId, direction, documentId, name, totalBytes, transferred, totalParts,
+                parts.get(), retries.get(), Duration.ofNanos(elapsedNanos), average, currentBytesPerSecond);
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private final TransferTracker tracker;
+
+        private CountingOutputStream(OutputStream out, TransferTracker tracker) {
+            super(out);
+            this.tracker = tracker;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            tracker.bytes(1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            tracker.bytes(len);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.claims.documentapi.example;
 
+import com.claims.documentapi.CrossTenantSearchCursor;
 import com.claims.documentapi.DocumentApiClient;
 import com.claims.documentapi.dto.DocumentSearchRequest;
 import com.claims.documentapi.dto.DocumentResponse;
@@ -61,6 +62,12 @@ public class DocumentSearchExample {
             "asc"
         );
         System.out.println("Found " + results3.size() + " documents with pagination");
+
+        // Example 4: Same search in several tenants at once, merged newest first
+        try (CrossTenantSearchCursor cursor = client.searchAcrossTenants(searchRequest, List.of("claims", "underwriting"))) {
+            cursor.forEachRemaining(result ->
+                    System.out.println(result.tenant() + ": " + result.document().getId() + " " + result.document().getCreatedAt()));
+        }
         
         // Display results
         for (DocumentResponse doc : results1) {
@@ -1,14 +1,11 @@
 package com.claims.documentapi.sample;
 
 import com.claims.documentapi.DocumentApiClient;
+import com.claims.documentapi.AttachmentUploadException;
+import com.claims.documentapi.AttachmentUploader;
 import com.claims.documentapi.dto.*;
 
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.io.File;
-import java.io.RandomAccessFile;
 import java.util.*;
 
 public class SampleDataSeeder {
@@ -462,8 +459,11 @@ public class SampleDataSeeder {
         List<File> files = new ArrayList<>();
         for (String path : filePaths) {
             File f = new File(path);
-            if (f.exists() && f.isFile()) {
+            // The uploader rejects the whole list for one missing file, so drop those here
+            if (f.isFile() && f.canRead()) {
                 files.add(f);
+            } else {
+                System.out.println("Skipping missing or unreadable file for document " + documentId + ": " + path);
             }
         }
 
@@ -473,92 +473,19 @@ public class SampleDataSeeder {
         }
 
         DocumentLockResponse lock = client.lockDocument(documentId, 900);
-        try {
-            for (File file : files) {
-                uploadAttachmentMultipartBestEffort(documentId, file, lock.getLockId());
-            }
+        try (AttachmentUploader uploader = new AttachmentUploader(client)) {
+            List<DocumentAttachmentDto> uploaded = uploader.uploadAttachments(documentId, files, lock.getLockId());
+            uploaded.forEach(a -> System.out.println("Uploaded attachment: doc=" + documentId + " file=" + a.getFileName() + " attachmentId=" + a.getId()));
+        } catch (AttachmentUploadException e) {
+            e.getUploaded().forEach(a -> System.out.println("Uploaded attachment: doc=" + documentId + " file=" + a.getFileName() + " attachmentId=" + a.getId()));
+            System.out.println("Upload failed for files " + e.getFailedFiles() + ": " + e.getMessage());
+        } catch (Exception e) {
+            System.out.println("Upload failed for document " + documentId + ": " + e.getMessage());
         } finally {
             safeRun(() -> client.unlockDocument(documentId, lock.getLockId()));
         }
     }
 
-    private void uploadAttachmentMultipartBestEffort(String documentId, File file, String lockId) {
-        if (file == null || !file.exists() || !file.isFile()) {
-            return;
-        }
-
-        try {
-            String contentType = "application/octet-stream";
-
-            MultipartUploadInitRequest initRequest = new MultipartUploadInitRequest();
-            initRequest.setFileName(file.getName());
-            initRequest.setContentType(contentType);
-            initRequest.setFileSize(file.length());
-
-            MultipartUploadInitResponse initResponse = client.initMultipartUpload(documentId, initRequest, lockId);
-            String sessionId = initResponse.getSessionId();
-
-            int partSizeBytes = initResponse.getPartSizeBytes() != null ? initResponse.getPartSizeBytes() : 10 * 1024 * 1024;
-            long totalSize = file.length();
-            int totalParts = (int) Math.ceil((double) totalSize / (double) partSizeBytes);
-            if (totalParts <= 0) {
-                System.out.println("Invalid file size for multipart upload: " + file);
-                return;
-            }
-
-            HttpClient httpClient = HttpClient.newHttpClient();
-            List<MultipartCompletedPart> completedParts = new ArrayList<>();
-
-            try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
-                byte[] buffer = new byte[partSizeBytes];
-                for (int partNumber = 1; partNumber <= totalParts; partNumber++) {
-                    long offset = (long) (partNumber - 1) * partSizeBytes;
-                    raf.seek(offset);
-                    int read = raf.read(buffer);
-                    if (read <= 0) {
-                        break;
-                    }
-
-                    byte[] partBytes = read == buffer.length ? buffer : java.util.Arrays.copyOf(buffer, read);
-                    MultipartPresignPartResponse presign = client.presignMultipartUploadPart(documentId, sessionId, partNumber);
-
-                    HttpRequest putRequest = HttpRequest.newBuilder()
-                            .uri(URI.create(presign.getPresignedUrl()))
-                            .PUT(HttpRequest.BodyPublishers.ofByteArray(partBytes))
-                            .build();
-
-                    HttpResponse<Void> putResponse = httpClient.send(putRequest, HttpResponse.BodyHandlers.discarding());
-                    if (putResponse.statusCode() < 200 || putResponse.statusCode() >= 300) {
-                        throw new RuntimeException("Part upload failed. status=" + putResponse.statusCode() + ", part=" + partNumber);
-                    }
-
-                    String etag = putResponse.headers().firstValue("ETag")
-                            .orElse(putResponse.headers().firstValue("Etag").orElse(null));
-                    if (etag == null || etag.isBlank()) {
-                        throw new RuntimeException("Missing ETag for part " + partNumber);
-                    }
-
-                    MultipartCompletedPart completedPart = new MultipartCompletedPart();
-                    completedPart.setPartNumber(partNumber);
-                    completedPart.setETag(etag);
-                    completedParts.add(completedPart);
-                }
-            }
-
-            if (completedParts.isEmpty()) {
-                throw new RuntimeException("No parts uploaded.");
-            }
-
-            MultipartUploadCompleteRequest completeRequest = new MultipartUploadCompleteRequest();
-            completeRequest.setParts(completedParts);
-
-            MultipartUploadCompleteResponse completeResponse = client.completeMultipartUpload(documentId, sessionId, completeRequest, lockId);
-            System.out.println("Uploaded attachment via multipart: doc=" + documentId + " file=" + file.getName() + " attachmentId=" + completeResponse.getAttachmentId());
-        } catch (Exception e) {
-            System.out.println("Multipart upload failed for file " + file.getName() + ": " + e.getMessage());
-        }
-    }
-
     private static <T> List<T> safeList(SupplierWithException<List<T>> supplier) {
         try {
             return supplier.get();
@@ -1,16 +1,16 @@
 package com.document.api.cli.demo;
 
 import com.claims.documentapi.DocumentApiClient;
+import com.claims.documentapi.MultipartUploadResult;
+import com.claims.documentapi.MultipartUploader;
+import com.claims.documentapi.TransferListener;
+import com.claims.documentapi.TransferProgress;
 import com.claims.documentapi.dto.*;
 import lombok.NonNull;
 
 import java.io.File;
-import java.io.RandomAccessFile;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.nio.file.Files;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -928,7 +928,6 @@ public class DocumentApiCliApplication {
 
     private void multipartUploadAttachmentDemo() {
         DocumentLockResponse lock = null;
-        String sessionId = null;
         String documentId = null;
         try {
             System.out.print("Document ID: ");
@@ -963,92 +962,37 @@ public class DocumentApiCliApplication {
                 contentType = "application/octet-stream";
             }
 
-            MultipartUploadInitRequest initRequest = new MultipartUploadInitRequest();
-            initRequest.setFileName(file.getName());
-            initRequest.setContentType(contentType);
-            initRequest.setFileSize(file.length());
-
-            MultipartUploadInitResponse initResponse = client.initMultipartUpload(documentId, initRequest, lock.getLockId());
-            sessionId = initResponse.getSessionId();
-
-            int partSizeBytes = initResponse.getPartSizeBytes() != null ? initResponse.getPartSizeBytes() : 10 * 1024 * 1024;
-            long totalSize = file.length();
-            int totalParts = (int) Math.ceil((double) totalSize / (double) partSizeBytes);
-            if (totalParts <= 0) {
-                System.out.println("Invalid file size.");
-                return;
-            }
-
-            HttpClient httpClient = HttpClient.newHttpClient();
-            List<MultipartCompletedPart> completedParts = new ArrayList<>();
-
-            try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
-                byte[] buffer = new byte[partSizeBytes];
-                for (int partNumber = 1; partNumber <= totalParts; partNumber++) {
-                    long offset = (long) (partNumber - 1) * partSizeBytes;
-                    raf.seek(offset);
-                    int read = raf.read(buffer);
-                    if (read <= 0) {
-                        break;
-                    }
-
-                    byte[] partBytes = read == buffer.length ? buffer : java.util.Arrays.copyOf(buffer, read);
-                    MultipartPresignPartResponse presign = client.presignMultipartUploadPart(documentId, sessionId, partNumber);
-
-                    URI presignedUrl = URI.create(presign.getPresignedUrl());
-                    System.out.println("Uploading to presigned URL: " + presignedUrl);
-
-                    HttpRequest putRequest = HttpRequest.newBuilder()
-                            .uri(presignedUrl)
-                            .PUT(HttpRequest.BodyPublishers.ofByteArray(partBytes))
-                            .build();
-
-                    HttpResponse<Void> putResponse = httpClient.send(putRequest, HttpResponse.BodyHandlers.discarding());
-                    if (putResponse.statusCode() < 200 || putResponse.statusCode() >= 300) {
-                        throw new RuntimeException("Part upload failed. status=" + putResponse.statusCode() + ", part=" + partNumber);
-                    }
-
-                    String etag = putResponse.headers().firstValue("ETag")
-                            .orElse(putResponse.headers().firstValue("Etag").orElse(null));
-                    if (etag == null || etag.isBlank()) {
-                        throw new RuntimeException("Missing ETag for part " + partNumber);
-                    }
-
-                    MultipartCompletedPart completedPart = new MultipartCompletedPart();
-                    completedPart.setPartNumber(partNumber);
-                    completedPart.setETag(etag);
-                    completedParts.add(completedPart);
-
-                    System.out.println("Uploaded part " + partNumber + "/" + totalParts + " (" + read + " bytes)");
+            MultipartUploadResult result;
+            client.setTransferListener(new TransferListener() {
+                @Override
+                public void onPartCompleted(TransferProgress progress, int partNumber, long bytes, Duration latency) {
+                    System.out.printf("Uploaded part %d (%d/%d, %.0f%%) in %d ms, %.1f MB/s current, %.1f MB/s average%n",
+                            partNumber, progress.partsCompleted(), progress.totalParts(), progress.fraction() * 100,
+                            latency.toMillis(), progress.currentBytesPerSecond() / 1e6, progress.averageBytesPerSecond() / 1e6);
                 }
-            }
 
-            if (completedParts.isEmpty()) {
-                throw new RuntimeException("No parts uploaded.");
+                @Override
+                public void onRetry(TransferProgress progress, int partNumber, int attempt, Throwable cause) {
+                    System.out.println("Retrying part " + partNumber + " after attempt " + attempt + " failed: " + cause.getMessage());
+                }
+            });
+            try (MultipartUploader uploader = new MultipartUploader(client)) {
+                result = uploader.upload(documentId, file, contentType, lock.getLockId());
+            } finally {
+                client.setTransferListener(null);
             }
-
-            MultipartUploadCompleteRequest completeRequest = new MultipartUploadCompleteRequest();
-            completeRequest.setParts(completedParts);
-
-            MultipartUploadCompleteResponse completeResponse = client.completeMultipartUpload(documentId, sessionId, completeRequest, lock.getLockId());
+            System.out.println("Uploaded " + result.getParts().size() + " part(s) (" + result.getFileSize() + " bytes)");
             System.out.println("Multipart upload completed!");
-            System.out.println("Attachment ID: " + completeResponse.getAttachmentId());
+            System.out.println("Attachment ID: " + result.getAttachmentId());
 
             try {
-                String downloadUrl = client.getAttachmentDownloadUrl(documentId, completeResponse.getAttachmentId());
+                String downloadUrl = client.getAttachmentDownloadUrl(documentId, result.getAttachmentId());
                 System.out.println("Download URL: " + downloadUrl);
             } catch (Exception e) {
                 System.out.println("Failed to get download URL: " + e.getMessage());
             }
         } catch (Exception e) {
             System.out.println("Multipart upload failed: " + e.getMessage());
-            if (documentId != null && sessionId != null && lock != null) {
-                try {
-                    client.abortMultipartUpload(documentId, sessionId, lock.getLockId());
-                    System.out.println("Multipart session aborted.");
-                } catch (Exception ignored) {
-                }
-            }
         } finally {
             if (documentId != null && lock != null) {
                 try {
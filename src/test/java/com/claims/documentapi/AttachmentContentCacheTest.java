@@ -0,0 +1,143 @@
+package com.claims.documentapi;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the on-disk attachment content cache
+ */
+public class AttachmentContentCacheTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testEntryIsServedOnlyWhileSizeAndETagMatch() throws Exception {
+        AttachmentContentCache cache = AttachmentContentCache.open(dir, 1024);
+        cache.put("att-1", staged(cache, 10), "\"v1\"");
+
+        ByteBuffer content = cache.map("att-1", 10, null);
+        assertNotNull(content);
+        assertEquals(10, content.remaining());
+        assertNotNull(cache.get("att-1", 10, "\"v1\""));
+
+        assertNull(cache.get("att-1", 10, "\"v2\""));
+        assertEquals(0, cache.size());
+        assertNull(cache.get("att-1", 10, null));
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedBeyondMaxBytes() throws Exception {
+        AttachmentContentCache cache = AttachmentContentCache.open(dir, 25);
+        cache.put("a", staged(cache, 10), null);
+        cache.put("b", staged(cache, 10), null);
+        cache.get("a", 10, null);
+        cache.put("c", staged(cache, 10), null);
+
+        assertEquals(20, cache.getTotalBytes());
+        assertNotNull(cache.get("a", 10, null));
+        assertNull(cache.get("b", 10, null));
+    }
+
+    @Test
+    public void testEntriesSurviveReopenAndStagingFilesAreDropped() throws Exception {
+        AttachmentContentCache cache = AttachmentContentCache.open(dir, 1024);
+        cache.put("doc/att 1", staged(cache, 7), "\"e\"");
+        Path leftover = staged(cache, 3);
+
+        AttachmentContentCache reopened = AttachmentContentCache.open(dir, 1024);
+        assertEquals(1, reopened.size());
+        assertNotNull(reopened.get("doc/att 1", 7, "\"e\""));
+        assertFalse(Files.exists(leftover));
+    }
+
+    @Test
+    public void testReadChecksListedETagAndDoesNotCacheMismatchedContent() throws Exception {
+        AtomicInteger blobRequests = new AtomicInteger();
+        HttpServer server = startServer(blobRequests);
+        AttachmentContentCache cache = AttachmentContentCache.open(dir, 1024);
+        try (DocumentApiClient client = new DocumentApiClient(baseUrl(server));
+             AttachmentDownloader downloader = new AttachmentDownloader(client,
+                     AttachmentDownloadOptions.builder().contentCache(cache).build())) {
+            assertEquals(5, downloader.read("doc1", "att1", 5, "\"v1\"").remaining());
+            assertEquals(5, downloader.read("doc1", "att1", 5, "\"v1\"").remaining());
+            assertEquals(1, blobRequests.get());
+
+            assertThrows(IllegalStateException.class, () -> downloader.read("doc1", "att1", 5, "\"v2\""));
+            assertThrows(IllegalStateException.class, () -> downloader.read("doc1", "att1", 6, null));
+            assertEquals(3, blobRequests.get());
+            assertEquals(0, cache.size());
+            try (var files = Files.list(dir)) {
+                assertTrue(files.noneMatch(file -> file.getFileName().toString().contains("staging")));
+            }
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testTenantsSharingTheCacheDoNotReadEachOthersContent() throws Exception {
+        AtomicInteger blobRequests = new AtomicInteger();
+        HttpServer server = startServer(blobRequests);
+        AttachmentContentCache cache = AttachmentContentCache.open(dir, 1024);
+        AttachmentDownloadOptions options = AttachmentDownloadOptions.builder().contentCache(cache).build();
+        try (DocumentApiClient client = new DocumentApiClient(baseUrl(server));
+             AttachmentDownloader tenantA = new AttachmentDownloader(client.forTenant("tenant-a"), options);
+             AttachmentDownloader tenantB = new AttachmentDownloader(client.forTenant("tenant-b"), options)) {
+            tenantA.read("doc1", "att1", 5);
+            tenantA.read("doc1", "att1", 5);
+            assertEquals(1, blobRequests.get());
+
+            tenantB.read("doc1", "att1", 5);
+            assertEquals(2, blobRequests.get());
+            assertEquals(2, cache.size());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Local server handing out a download URL for any attachment, pointing at a five-byte blob with ETag "v1"
+     */
+    private static HttpServer startServer(AtomicInteger blobRequests) throws Exception {
+        byte[] content = "hello".getBytes(StandardCharsets.UTF_8);
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        String blobUrl = baseUrl(server) + "/blob";
+        server.createContext("/api/documents", exchange -> {
+            byte[] url = blobUrl.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, url.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(url);
+            }
+        });
+        server.createContext("/blob", exchange -> {
+            blobRequests.incrementAndGet();
+            exchange.getResponseHeaders().set("ETag", "\"v1\"");
+            exchange.sendResponseHeaders(200, content.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(content);
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private static String baseUrl(HttpServer server) {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    private static Path staged(AttachmentContentCache cache, int size) throws Exception {
+        return Files.write(cache.stagingFile(), new byte[size]);
+    }
+}
@@ -0,0 +1,62 @@
+package com.claims.documentapi;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the persisted attachment hash index
+ */
+public class AttachmentHashIndexTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testEntriesSurviveReopenAndLastEntryWins() {
+        Path file = dir.resolve("hashes.tsv");
+        try (AttachmentHashIndex index = AttachmentHashIndex.open(file)) {
+            index.put("att-1", 10, "a".repeat(64));
+            index.put("att-2", 20, "b".repeat(64));
+            index.put("att-1", 11, "c".repeat(64));
+        }
+
+        try (AttachmentHashIndex reopened = AttachmentHashIndex.open(file)) {
+            assertEquals(2, reopened.size());
+            assertEquals(new AttachmentHashIndex.Entry(11, "c".repeat(64)), reopened.get("att-1"));
+            assertNull(reopened.get("att-3"));
+        }
+    }
+
+    @Test
+    public void testTornLastLineIsIgnoredAndCutOff() throws Exception {
+        Path file = dir.resolve("hashes.tsv");
+        try (AttachmentHashIndex index = AttachmentHashIndex.open(file)) {
+            index.put("att-1", 10, "a".repeat(64));
+        }
+        Files.writeString(file, "att-2\t20\t" + "b".repeat(10), StandardOpenOption.APPEND);
+
+        try (AttachmentHashIndex reopened = AttachmentHashIndex.open(file)) {
+            assertNull(reopened.get("att-2"));
+            reopened.put("att-3", 30, "c".repeat(64));
+        }
+        try (AttachmentHashIndex reopened = AttachmentHashIndex.open(file)) {
+            assertEquals(2, reopened.size());
+            assertEquals(new AttachmentHashIndex.Entry(30, "c".repeat(64)), reopened.get("att-3"));
+        }
+    }
+
+    @Test
+    public void testSha256OfFile() throws Exception {
+        Path file = dir.resolve("abc.txt");
+        Files.writeString(file, "abc", StandardCharsets.US_ASCII);
+
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", AttachmentHashIndex.sha256(file));
+    }
+}
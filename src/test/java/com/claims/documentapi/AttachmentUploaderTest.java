@@ -0,0 +1,55 @@
+package com.claims.documentapi;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for packing small attachments into batch requests
+ */
+public class AttachmentUploaderTest {
+
+    @Test
+    public void testPacksIntoFewestBatchesWithinBudget() {
+        List<AttachmentUploader.IndexedSource> sources = sources(900, 700, 400, 300, 100, 50);
+
+        List<List<AttachmentUploader.IndexedSource>> batches = AttachmentUploader.planBatches(sources, 1000, 100);
+
+        assertEquals(3, batches.size());
+        for (List<AttachmentUploader.IndexedSource> batch : batches) {
+            assertTrue(batch.stream().mapToLong(s -> s.source().getLength()).sum() <= 1000);
+        }
+        assertEquals(List.of(0, 4), indexes(batches.get(0)));
+        assertEquals(List.of(1, 3), indexes(batches.get(1)));
+        assertEquals(List.of(2, 5), indexes(batches.get(2)));
+    }
+
+    @Test
+    public void testRespectsFileCountAndIsolatesOversizedSource() {
+        List<List<AttachmentUploader.IndexedSource>> byCount =
+                AttachmentUploader.planBatches(sources(1, 1, 1, 1, 1), 1000, 2);
+        assertEquals(3, byCount.size());
+
+        List<List<AttachmentUploader.IndexedSource>> oversized =
+                AttachmentUploader.planBatches(sources(5000, 10), 1000, 100);
+        assertEquals(List.of(0), indexes(oversized.get(0)));
+        assertEquals(List.of(1), indexes(oversized.get(1)));
+    }
+
+    private static List<AttachmentUploader.IndexedSource> sources(long... sizes) {
+        List<AttachmentUploader.IndexedSource> sources = new ArrayList<>();
+        for (int i = 0; i < sizes.length; i++) {
+            sources.add(new AttachmentUploader.IndexedSource(i,
+                    AttachmentSource.of("file" + i, new ByteArrayInputStream(new byte[0]), sizes[i])));
+        }
+        return sources;
+    }
+
+    private static List<Integer> indexes(List<AttachmentUploader.IndexedSource> batch) {
+        return batch.stream().map(AttachmentUploader.IndexedSource::index).toList();
+    }
+}
@@ -0,0 +1,46 @@
+package com.claims.documentapi;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the shared transfer bandwidth limit
+ */
+public class BandwidthSchedulerTest {
+
+    @Test
+    public void testReservationsArePacedAtTheGlobalRate() {
+        BandwidthScheduler scheduler = new BandwidthScheduler(1000, 0);
+        long lastWait = 0;
+        for (int i = 0; i < 10; i++) {
+            lastWait = scheduler.reserve("claims", 100);
+        }
+        // Ten 100-byte chunks at 1000 B/s without burst are paid for after 1s
+        assertEquals(1000, TimeUnit.NANOSECONDS.toMillis(lastWait), 50);
+    }
+
+    @Test
+    public void testBusyTenantsShareByWeight() {
+        BandwidthScheduler scheduler = new BandwidthScheduler(1000, 0);
+        scheduler.setWeight("heavy", 3);
+        scheduler.setWeight("light", 1);
+        long heavyWait = 0;
+        long lightWait = 0;
+        for (int i = 0; i < 6; i++) {
+            heavyWait = scheduler.reserve("heavy", 100);
+            lightWait = scheduler.reserve("light", 100);
+        }
+        assertTrue(lightWait > heavyWait, "light=" + lightWait + " heavy=" + heavyWait);
+        assertThrows(IllegalArgumentException.class, () -> scheduler.setWeight("light", 0));
+    }
+
+    @Test
+    public void testBurstIsAvailableAfterIdle() {
+        BandwidthScheduler scheduler = new BandwidthScheduler(1000, 500);
+        assertEquals(0, scheduler.reserve(null, 500));
+        assertTrue(scheduler.reserve(null, 500) > 0);
+    }
+}
@@ -0,0 +1,107 @@
+package com.claims.documentapi;
+
+import com.claims.documentapi.dto.DocumentResponse;
+import com.claims.documentapi.dto.DocumentSearchRequest;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for merging a search across tenants
+ */
+public class CrossTenantSearchCursorTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Test
+    public void testMergesPagesOfAllTenantsInSortOrder() {
+        Map<String, Function<DocumentSearchRequest, List<DocumentResponse>>> fetchers = new LinkedHashMap<>();
+        fetchers.put("claims", pages("c", 9, 7, 4, 1));
+        fetchers.put("underwriting", pages("u", 8, 4, 2));
+
+        DocumentSearchRequest request = new DocumentSearchRequest();
+        request.setSize(2);
+        request.setSortBy("createdAt");
+        request.setSortDirection("desc");
+
+        List<String> ids = new ArrayList<>();
+        try (CrossTenantSearchCursor cursor = new CrossTenantSearchCursor(fetchers, request, 1)) {
+            cursor.forEachRemaining(result -> ids.add(result.tenant() + ":" + result.document().getId()));
+        }
+
+        assertEquals(List.of("claims:c9", "underwriting:u8", "claims:c7", "claims:c4", "underwriting:u4",
+                "underwriting:u2", "claims:c1"), ids);
+    }
+
+    @Test
+    public void testTenantsAreSearchedConcurrently() throws Exception {
+        // Each tenant's first page waits until the other tenant's has been requested too
+        CountDownLatch bothRequested = new CountDownLatch(2);
+        Function<DocumentSearchRequest, List<DocumentResponse>> fetcher = request -> {
+            bothRequested.countDown();
+            try {
+                if (!bothRequested.await(5, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("Tenants were searched one after the other");
+                }
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return List.of();
+        };
+        Map<String, Function<DocumentSearchRequest, List<DocumentResponse>>> fetchers = new LinkedHashMap<>();
+        fetchers.put("claims", fetcher);
+        fetchers.put("underwriting", fetcher);
+
+        try (CrossTenantSearchCursor cursor = new CrossTenantSearchCursor(fetchers, new DocumentSearchRequest(), 1)) {
+            assertFalse(cursor.hasNext());
+        }
+    }
+
+    @Test
+    public void testSortsByAttributeWithMissingValuesFirst() {
+        Comparator<DocumentResponse> ascending = CrossTenantSearchCursor.sortOrder("amount", "asc");
+        DocumentResponse missing = document("a", 0);
+        DocumentResponse small = document("b", 0);
+        small.setAttributes(Map.of("amount", 5));
+        DocumentResponse large = document("c", 0);
+        large.setAttributes(Map.of("amount", 12.5));
+
+        List<DocumentResponse> sorted = new ArrayList<>(List.of(large, missing, small));
+        sorted.sort(ascending);
+        assertEquals(List.of("a", "b", "c"), sorted.stream().map(DocumentResponse::getId).toList());
+
+        sorted.sort(CrossTenantSearchCursor.sortOrder("attributes.amount", "DESC"));
+        assertEquals(List.of("c", "b", "a"), sorted.stream().map(DocumentResponse::getId).toList());
+    }
+
+    /**
+     * Pages of a tenant's results, newest first, with ids made of the prefix and the creation hour
+     */
+    private static Function<DocumentSearchRequest, List<DocumentResponse>> pages(String prefix, int... hours) {
+        List<DocumentResponse> all = new ArrayList<>();
+        for (int hour : hours) {
+            all.add(document(prefix + hour, hour));
+        }
+        return request -> {
+            int from = Math.min(all.size(), request.getPage() * request.getSize());
+            return all.subList(from, Math.min(all.size(), from + request.getSize()));
+        };
+    }
+
+    private static DocumentResponse document(String id, int hour) {
+        DocumentResponse document = new DocumentResponse();
+        document.setId(id);
+        document.setCreatedAt(BASE.plusHours(hour));
+        return document;
+    }
+}
@@ -0,0 +1,90 @@
+package com.claims.documentapi;
+
+import com.claims.documentapi.dto.DocumentAttachmentDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for watching a directory and uploading the files dropped into it
+ */
+public class DirectoryIngestionServiceTest {
+
+    @TempDir
+    Path dir;
+
+    /** Size of each file when it was uploaded, by file name. */
+    private final Map<String, Long> uploadedSizes = new ConcurrentHashMap<>();
+
+    @Test
+    public void testFileIsUploadedOnceAfterItStopsChanging() throws Exception {
+        AttachmentUploader uploader = uploader();
+        Path file = dir.resolve("scan-001.pdf");
+
+        try (DirectoryIngestionService service = new DirectoryIngestionService(uploader, options())) {
+            service.start();
+            Files.writeString(file, "part-1");
+            for (int i = 2; i <= 4; i++) {
+                Thread.sleep(100);
+                Files.writeString(file, "-part-" + i, StandardOpenOption.APPEND);
+            }
+            verify(uploader, timeout(5000)).uploadAttachmentSources(eq("doc-1"), anyList(), isNull());
+            Thread.sleep(500);
+        }
+        verify(uploader, times(1)).uploadAttachmentSources(eq("doc-1"), anyList(), isNull());
+        assertEquals(Files.size(file), uploadedSizes.get("scan-001.pdf"));
+    }
+
+    @Test
+    public void testRestartRescansAndSkipsFilesAlreadyIngested() throws Exception {
+        AttachmentUploader uploader = uploader();
+        Files.writeString(dir.resolve("scan-001.pdf"), "first");
+
+        try (DirectoryIngestionService service = new DirectoryIngestionService(uploader, options())) {
+            service.start();
+            verify(uploader, timeout(5000)).uploadAttachmentSources(eq("doc-1"), anyList(), isNull());
+        }
+        Files.writeString(dir.resolve("scan-002.pdf"), "second");
+
+        try (DirectoryIngestionService restarted = new DirectoryIngestionService(uploader, options())) {
+            restarted.start();
+            verify(uploader, timeout(5000).times(2)).uploadAttachmentSources(eq("doc-1"), anyList(), isNull());
+            Thread.sleep(500);
+            assertEquals(1, restarted.getIngestedCount());
+        }
+        verify(uploader, times(2)).uploadAttachmentSources(eq("doc-1"), anyList(), isNull());
+        assertEquals(Map.of("scan-001.pdf", 5L, "scan-002.pdf", 6L), uploadedSizes);
+    }
+
+    private DirectoryIngestionOptions options() {
+        return DirectoryIngestionOptions.builder()
+                .directory(dir)
+                .documentResolver(file -> "doc-1")
+                .debounce(Duration.ofMillis(300))
+                .build();
+    }
+
+    private AttachmentUploader uploader() {
+        AttachmentUploader uploader = mock(AttachmentUploader.class);
+        when(uploader.uploadAttachmentSources(eq("doc-1"), anyList(), isNull())).thenAnswer(invocation -> {
+            List<AttachmentSource> sources = invocation.getArgument(1);
+            Path path = sources.get(0).getPath();
+            uploadedSizes.merge(path.getFileName().toString(), Files.size(path), (a, b) -> -1L);
+            DocumentAttachmentDto attachment = new DocumentAttachmentDto();
+            attachment.setId("att-" + path.getFileName());
+            return List.of(attachment);
+        });
+        return uploader;
+    }
+}
@@ -0,0 +1,106 @@
+package com.claims.documentapi;
+
+import com.claims.documentapi.dto.DocumentResponse;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the non-blocking client against a local server
+ */
+public class DocumentApiAsyncClientTest {
+
+    private HttpServer server;
+    private String baseUrl;
+    private final long expires = Instant.now().plusSeconds(3600).getEpochSecond();
+    private final AtomicInteger urlRequests = new AtomicInteger();
+    private volatile String authorization;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+        server.createContext("/api/documents", this::documents);
+        server.start();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testDocumentsAreDecodedAndTheirUrlsCached() {
+        try (DocumentApiAsyncClient client = new DocumentApiAsyncClient(baseUrl)) {
+            client.setAuthToken("claims", "token-a");
+            List<DocumentResponse> documents = client.getDocuments().join();
+
+            assertEquals(1, documents.size());
+            DocumentResponse document = documents.get(0);
+            assertEquals("doc1", document.getId());
+            assertEquals("CLM-1", document.getAttributes().get("claimNumber"));
+            assertEquals(LocalDateTime.parse("2024-05-01T12:00:00"), document.getCreatedAt());
+            assertEquals("scan.pdf", document.getDocuments().get(0).getFileName());
+            assertEquals(2048, document.getDocuments().get(0).getFileSize());
+            assertEquals("Bearer token-a", authorization);
+
+            assertEquals("https://bucket/att1?Expires=" + expires, client.getAttachmentDownloadUrl("doc1", "att1").join());
+            assertEquals(0, urlRequests.get());
+        }
+    }
+
+    @Test
+    public void testErrorResponsesCompleteWithTheSpringExceptionTypes() {
+        try (DocumentApiAsyncClient client = new DocumentApiAsyncClient(baseUrl)) {
+            CompletionException missing = assertThrows(CompletionException.class, () -> client.getDocument("missing").join());
+            HttpClientErrorException.NotFound notFound = assertInstanceOf(HttpClientErrorException.NotFound.class, missing.getCause());
+            assertEquals("{\"error\":\"no such document\"}", notFound.getResponseBodyAsString());
+
+            CompletionException broken = assertThrows(CompletionException.class, () -> client.getDocument("broken").join());
+            assertInstanceOf(HttpServerErrorException.InternalServerError.class, broken.getCause());
+        }
+    }
+
+    private void documents(HttpExchange exchange) throws IOException {
+        authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        String path = exchange.getRequestURI().getPath();
+        if (path.equals("/api/documents")) {
+            respond(exchange, 200, "[{\"id\":\"doc1\",\"attributes\":{\"claimNumber\":\"CLM-1\"},"
+                    + "\"createdAt\":\"2024-05-01T12:00:00\",\"documents\":[{\"id\":\"att1\",\"documentId\":\"doc1\","
+                    + "\"fileName\":\"scan.pdf\",\"fileSize\":2048,\"presignedUrl\":\"https://bucket/att1?Expires=" + expires
+                    + "\"}]}]");
+        } else if (path.endsWith("/download")) {
+            urlRequests.incrementAndGet();
+            respond(exchange, 200, "https://bucket/fresh?Expires=" + expires);
+        } else if (path.endsWith("/missing")) {
+            respond(exchange, 404, "{\"error\":\"no such document\"}");
+        } else {
+            respond(exchange, 500, "{\"error\":\"boom\"}");
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.claims.documentapi;
+
+import com.claims.documentapi.dto.DocumentResponse;
+import com.claims.documentapi.dto.DocumentSearchRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for paging through search results with read-ahead
+ */
+public class DocumentSearchCursorTest {
+
+    @Test
+    public void testWalksAllPagesAndStopsOnShortPage() {
+        List<Integer> requestedPages = new CopyOnWriteArrayList<>();
+        Function<DocumentSearchRequest, List<DocumentResponse>> fetcher = request -> {
+            requestedPages.add(request.getPage());
+            return documents(request.getPage(), request.getPage() < 2 ? 3 : 1);
+        };
+
+        DocumentSearchRequest request = new DocumentSearchRequest();
+        request.setSize(3);
+
+        List<String> ids = new ArrayList<>();
+        try (DocumentSearchCursor cursor = new DocumentSearchCursor(fetcher, request, 2)) {
+            cursor.forEachRemaining(doc -> ids.add(doc.getId()));
+        }
+
+        assertEquals(List.of("p0-0", "p0-1", "p0-2", "p1-0", "p1-1", "p1-2", "p2-0"), ids);
+        assertTrue(requestedPages.containsAll(List.of(0, 1, 2)));
+    }
+
+    @Test
+    public void testWithoutPrefetchFetchesPagesOnDemand() {
+        List<Integer> requestedPages = new CopyOnWriteArrayList<>();
+        Function<DocumentSearchRequest, List<DocumentResponse>> fetcher = request -> {
+            requestedPages.add(request.getPage());
+            return request.getPage() < 3 ? documents(request.getPage(), 2) : List.of();
+        };
+
+        DocumentSearchRequest request = new DocumentSearchRequest();
+        request.setPage(1);
+        request.setSize(2);
+
+        try (DocumentSearchCursor cursor = new DocumentSearchCursor(fetcher, request, 0)) {
+            assertEquals(4, cursor.stream().count());
+        }
+
+        assertEquals(List.of(1, 2, 3), requestedPages);
+    }
+
+    @Test
+    public void testPropagatesPageFailure() {
+        Function<DocumentSearchRequest, List<DocumentResponse>> fetcher = request -> {
+            throw new IllegalStateException("search failed");
+        };
+
+        DocumentSearchCursor cursor = new DocumentSearchCursor(fetcher, new DocumentSearchRequest(), 1);
+        IllegalStateException e = assertThrows(IllegalStateException.class, cursor::hasNext);
+        assertEquals("search failed", e.getMessage());
+        assertFalse(cursor.hasNext());
+    }
+
+    private static List<DocumentResponse> documents(int page, int count) {
+        List<DocumentResponse> documents = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            DocumentResponse doc = new DocumentResponse();
+            doc.setId("p" + page + "-" + i);
+            documents.add(doc);
+        }
+        return documents;
+    }
+}
@@ -0,0 +1,60 @@
+package com.claims.documentapi;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the directory ingestion progress file
+ */
+public class IngestionProgressLogTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testRecordedFilesSurviveReopenAndTornLastLineIsIgnored() throws Exception {
+        Path file = dir.resolve("scan-001.pdf");
+        Path path = dir.resolve("progress");
+
+        try (IngestionProgressLog progress = IngestionProgressLog.open(path)) {
+            assertFalse(progress.isIngested(file, 10, 1000));
+            progress.record(file, 10, 1000, "doc-1", "att-1");
+            assertTrue(progress.isIngested(file, 10, 1000));
+        }
+        Files.writeString(path, "20\t2000\tdoc-2", StandardOpenOption.APPEND);
+
+        Path next = dir.resolve("scan-002.pdf");
+        IngestionProgressLog reopened = IngestionProgressLog.open(path);
+        assertTrue(reopened.isIngested(file, 10, 1000));
+        // Replaced under the same name
+        assertFalse(reopened.isIngested(file, 20, 2000));
+        reopened.record(next, 30, 3000, "doc-3", "att-3");
+        reopened.close();
+        assertThrows(IllegalStateException.class, () -> reopened.record(next, 40, 4000, "doc-4", "att-4"));
+
+        try (IngestionProgressLog restarted = IngestionProgressLog.open(path)) {
+            assertTrue(restarted.isIngested(file, 10, 1000));
+            assertTrue(restarted.isIngested(next, 30, 3000));
+            assertFalse(restarted.isIngested(next, 40, 4000));
+        }
+        assertEquals(2, Files.readAllLines(path).size());
+    }
+
+    @Test
+    public void testFileStaysIngestedWhenItsLineCannotBeWritten() throws Exception {
+        Path file = dir.resolve("scan-002.pdf");
+        // The log's parent directory cannot be created under a regular file
+        Path blocker = Files.writeString(dir.resolve("blocker"), "");
+
+        try (IngestionProgressLog progress = IngestionProgressLog.open(blocker.resolve("progress"))) {
+            assertThrows(RuntimeException.class, () -> progress.record(file, 10, 1000, "doc-1", "att-1"));
+            assertTrue(progress.isIngested(file, 10, 1000));
+        }
+    }
+}
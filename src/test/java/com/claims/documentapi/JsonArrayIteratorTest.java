@@ -0,0 +1,83 @@
+package com.claims.documentapi;
+
+import com.claims.documentapi.dto.DocumentResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for incremental decoding of search result arrays
+ */
+public class JsonArrayIteratorTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Test
+    public void testStreamsDocumentsAndReleasesResourceWhenExhausted() throws IOException {
+        AtomicInteger closed = new AtomicInteger();
+        String json = "[{\"id\":\"doc1\",\"attributes\":{\"title\":\"A\"},\"createdAt\":\"2024-01-02T03:04:05\"},"
+                + "{\"id\":\"doc2\",\"unknownField\":true}]";
+
+        JsonArrayIterator<DocumentResponse> iterator = open(json, closed::incrementAndGet);
+        List<DocumentResponse> documents = iterator.stream().toList();
+
+        assertEquals(2, documents.size());
+        assertEquals("doc1", documents.get(0).getId());
+        assertEquals("A", documents.get(0).getAttributes().get("title"));
+        assertEquals(2024, documents.get(0).getCreatedAt().getYear());
+        assertEquals("doc2", documents.get(1).getId());
+        assertEquals(1, closed.get());
+    }
+
+    @Test
+    public void testClosingEarlyReleasesResource() throws IOException {
+        AtomicInteger closed = new AtomicInteger();
+        String json = "[{\"id\":\"doc1\"},{\"id\":\"doc2\"},{\"id\":\"doc3\"}]";
+
+        try (Stream<DocumentResponse> stream = open(json, closed::incrementAndGet).stream()) {
+            assertEquals("doc1", stream.findFirst().orElseThrow().getId());
+        }
+
+        assertEquals(1, closed.get());
+    }
+
+    @Test
+    public void testNullBodyIsEmpty() throws IOException {
+        JsonArrayIterator<DocumentResponse> iterator = open("null", null);
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void testSkipsLongRunsOfNullElements() throws IOException {
+        String json = "[" + "null,".repeat(100_000) + "{\"id\":\"doc1\"}," + "null,".repeat(100_000) + "null]";
+
+        List<DocumentResponse> documents = open(json, null).stream().toList();
+
+        assertEquals(1, documents.size());
+        assertEquals("doc1", documents.get(0).getId());
+    }
+
+    @Test
+    public void testRejectsNonArrayBody() {
+        AtomicInteger closed = new AtomicInteger();
+        assertThrows(IOException.class, () -> open("{\"id\":\"doc1\"}", closed::incrementAndGet));
+        assertEquals(1, closed.get());
+    }
+
+    private JsonArrayIterator<DocumentResponse> open(String json, Closeable resource) throws IOException {
+        return new JsonArrayIterator<>(objectMapper,
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)),
+                objectMapper.constructType(DocumentResponse.class),
+                resource);
+    }
+}
@@ -0,0 +1,78 @@
+package com.claims.documentapi;
+
+import com.claims.documentapi.dto.MultipartCompletedPart;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the resumable upload checkpoint file
+ */
+public class MultipartCheckpointJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testRecordedPartsSurviveReopenAndTornLastLineIsIgnored() throws Exception {
+        File file = Files.write(dir.resolve("data.bin"), new byte[]{1, 2, 3}).toFile();
+        Path path = dir.resolve("data.journal");
+
+        try (MultipartCheckpointJournal journal = MultipartCheckpointJournal.create(path,
+                MultipartCheckpointJournal.Header.of("doc-1", "session-1", 5 * 1024 * 1024, file))) {
+            journal.record(part(2, "\"etag-2\""));
+            journal.record(part(1, "\"etag-1\""));
+        }
+        Files.writeString(path, "part\t3", StandardOpenOption.APPEND);
+
+        MultipartCheckpointJournal reopened = MultipartCheckpointJournal.open(path).orElseThrow();
+        assertEquals("session-1", reopened.header().sessionId());
+        assertTrue(reopened.header().matches("doc-1", file));
+        assertFalse(reopened.header().matches("doc-2", file));
+        assertTrue(reopened.isCompleted(1));
+        assertFalse(reopened.isCompleted(3));
+
+        List<MultipartCompletedPart> parts = reopened.completedParts();
+        assertEquals(List.of(1, 2), parts.stream().map(MultipartCompletedPart::getPartNumber).toList());
+        assertEquals("\"etag-1\"", parts.get(0).getETag());
+
+        reopened.record(part(4, "\"etag-4\""));
+        reopened.close();
+        Files.writeString(path, "part\t3\t\"etag-", StandardOpenOption.APPEND);
+
+        MultipartCheckpointJournal truncatedETag = MultipartCheckpointJournal.open(path).orElseThrow();
+        assertFalse(truncatedETag.isCompleted(3));
+        assertTrue(truncatedETag.isCompleted(4));
+        truncatedETag.record(part(3, "\"etag-3\""));
+        truncatedETag.close();
+        assertThrows(IllegalStateException.class, () -> truncatedETag.record(part(5, "\"etag-5\"")));
+
+        MultipartCheckpointJournal resumed = MultipartCheckpointJournal.open(path).orElseThrow();
+        assertEquals("\"etag-3\"", resumed.completedParts().get(2).getETag());
+        assertEquals(4, resumed.completedParts().size());
+
+        resumed.delete();
+        assertFalse(Files.exists(path));
+    }
+
+    @Test
+    public void testMissingOrForeignFileIsNotAJournal() throws Exception {
+        assertTrue(MultipartCheckpointJournal.open(dir.resolve("absent")).isEmpty());
+        Path other = Files.writeString(dir.resolve("notes.txt"), "hello\n");
+        assertTrue(MultipartCheckpointJournal.open(other).isEmpty());
+    }
+
+    private static MultipartCompletedPart part(int partNumber, String eTag) {
+        MultipartCompletedPart part = new MultipartCompletedPart();
+        part.setPartNumber(partNumber);
+        part.setETag(eTag);
+        return part;
+    }
+}
@@ -0,0 +1,60 @@
+package com.claims.documentapi;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the streaming multipart/form-data body used by batch uploads
+ */
+public class MultipartFormDataEncoderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testWritesFileAndStreamPartsWithExactLength() throws IOException {
+        Path file = Files.writeString(dir.resolve("report.txt"), "file body");
+        MultipartFormDataEncoder encoder = new MultipartFormDataEncoder("files", List.of(
+                AttachmentSource.of(file).withContentType("text/plain"),
+                AttachmentSource.of("scan \"1\".bin", new ByteArrayInputStream(new byte[]{1, 2, 3}), 3)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.writeTo(out);
+        String body = out.toString(StandardCharsets.ISO_8859_1);
+        String boundary = encoder.contentType().substring(encoder.contentType().indexOf("boundary=") + 9);
+
+        assertEquals(encoder.contentLength(), out.size());
+        assertTrue(body.startsWith("--" + boundary + "\r\n"));
+        assertTrue(body.contains("name=\"files\"; filename=\"report.txt\"\r\nContent-Type: text/plain\r\n\r\nfile body\r\n"));
+        assertTrue(body.contains("filename=\"scan \\\"1\\\".bin\"\r\nContent-Type: application/octet-stream\r\n\r\n\u0001\u0002\u0003\r\n"));
+        assertTrue(body.endsWith("--" + boundary + "--\r\n"));
+    }
+
+    @Test
+    public void testUnknownLengthIsChunkedAndWrongLengthFails() {
+        MultipartFormDataEncoder unknown = new MultipartFormDataEncoder("files", List.of(
+                AttachmentSource.of("a.bin", new ByteArrayInputStream(new byte[10]), AttachmentSource.UNKNOWN_LENGTH)));
+        assertEquals(-1, unknown.contentLength());
+
+        MultipartFormDataEncoder wrong = new MultipartFormDataEncoder("files", List.of(
+                AttachmentSource.of("b.bin", new ByteArrayInputStream(new byte[10]), 20)));
+        assertThrows(IOException.class, () -> wrong.writeTo(new ByteArrayOutputStream()));
+    }
+
+    @Test
+    public void testContentTypeWithALineBreakIsRejected() {
+        AttachmentSource source = AttachmentSource.of("a.bin", new ByteArrayInputStream(new byte[1]), 1)
+                .withContentType("text/plain\r\nX-Injected: 1");
+        assertThrows(IllegalArgumentException.class, () -> new MultipartFormDataEncoder("files", List.of(source)));
+    }
+}
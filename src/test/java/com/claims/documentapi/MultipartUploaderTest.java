@@ -0,0 +1,168 @@
+package com.claims.documentapi;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for multipart uploads against a local server playing both the API and the object store
+ */
+public class MultipartUploaderTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    private HttpServer server;
+    private String baseUrl;
+    /** Status of each PUT by part number and attempt (1-based); 200 unless it says otherwise. */
+    private volatile IntUnaryOperator[] partStatus = new IntUnaryOperator[0];
+    private volatile Duration partDelay = Duration.ZERO;
+    private final Map<Integer, AtomicInteger> attempts = new ConcurrentHashMap<>();
+    private final Map<Integer, String> received = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final List<Integer> inFlightAtAbort = new ArrayList<>();
+    private volatile JsonNode completeRequest;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+        server.createContext("/api/documents", this::api);
+        server.createContext("/parts/", this::putPart);
+        server.start();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testPartsAreCompletedInOrderAndAFailedPartIsRetriedAlone() throws Exception {
+        partStatus = new IntUnaryOperator[]{attempt -> 200, attempt -> attempt == 1 ? 500 : 200, attempt -> 200};
+        File file = Files.writeString(dir.resolve("claim.txt"), "0123456789").toFile();
+
+        try (DocumentApiClient client = new DocumentApiClient(baseUrl);
+             MultipartUploader uploader = new MultipartUploader(client, options())) {
+            MultipartUploadResult result = uploader.upload("doc-1", file, "text/plain", null);
+
+            assertEquals("att-1", result.getAttachmentId());
+            assertEquals(4, result.getPartSizeBytes());
+        }
+        assertEquals(1, attempts.get(1).get());
+        assertEquals(2, attempts.get(2).get());
+        assertEquals(1, attempts.get(3).get());
+        assertEquals(Map.of(1, "0123", 2, "4567", 3, "89"), received);
+        JsonNode parts = completeRequest.get("parts");
+        assertEquals(3, parts.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i + 1, parts.get(i).get("partNumber").asInt());
+            assertEquals("\"etag-" + (i + 1) + "\"", parts.get(i).get("eTag").asText());
+        }
+        assertTrue(inFlightAtAbort.isEmpty());
+    }
+
+    @Test
+    public void testSessionIsAbortedOnlyOnceNoPartIsInFlight() throws Exception {
+        partStatus = new IntUnaryOperator[]{attempt -> 500, attempt -> 200, attempt -> 200};
+        partDelay = Duration.ofMillis(300);
+        File file = Files.writeString(dir.resolve("claim.txt"), "0123456789").toFile();
+
+        try (DocumentApiClient client = new DocumentApiClient(baseUrl);
+             MultipartUploader uploader = new MultipartUploader(client, options())) {
+            assertThrows(RuntimeException.class, () -> uploader.upload("doc-1", file, "text/plain", null));
+        }
+        assertEquals(2, attempts.get(1).get());
+        assertNull(completeRequest);
+        assertEquals(List.of(0), inFlightAtAbort);
+    }
+
+    private static MultipartUploadOptions options() {
+        return MultipartUploadOptions.builder()
+                .adaptiveConcurrency(false)
+                .parallelism(3)
+                .maxPartAttempts(2)
+                .retryBackoff(Duration.ofMillis(10))
+                .build();
+    }
+
+    private void api(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        byte[] body = exchange.getRequestBody().readAllBytes();
+        if (path.endsWith("/attachments/multipart")) {
+            respond(exchange, 200, "{\"sessionId\":\"session-1\",\"partSizeBytes\":4}");
+        } else if (path.endsWith("/presign-part")) {
+            String partNumber = exchange.getRequestURI().getQuery().replace("partNumber=", "");
+            respond(exchange, 200, "{\"partNumber\":" + partNumber + ",\"presignedUrl\":\"" + baseUrl + "/parts/"
+                    + partNumber + "\",\"expiresInSeconds\":3600}");
+        } else if (path.endsWith("/complete")) {
+            completeRequest = MAPPER.readTree(body);
+            respond(exchange, 200, "{\"sessionId\":\"session-1\",\"attachmentId\":\"att-1\"}");
+        } else if (path.endsWith("/abort")) {
+            synchronized (inFlightAtAbort) {
+                inFlightAtAbort.add(inFlight.get());
+            }
+            respond(exchange, 200, "");
+        } else {
+            respond(exchange, 404, "");
+        }
+    }
+
+    private void putPart(HttpExchange exchange) throws IOException {
+        int status = 500;
+        inFlight.incrementAndGet();
+        try {
+            int partNumber = Integer.parseInt(exchange.getRequestURI().getPath().substring("/parts/".length()));
+            int attempt = attempts.computeIfAbsent(partNumber, n -> new AtomicInteger()).incrementAndGet();
+            String content = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            status = partStatus[partNumber - 1].applyAsInt(attempt);
+            if (status == 200) {
+                Thread.sleep(partDelay.toMillis());
+                received.put(partNumber, content);
+                exchange.getResponseHeaders().set("ETag", "\"etag-" + partNumber + "\"");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // Counted out before the response is sent, so a part the uploader has seen finish is no longer counted
+            inFlight.decrementAndGet();
+        }
+        exchange.sendResponseHeaders(status, -1);
+        exchange.close();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.claims.documentapi;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for per-part checksums and the composite file checksum
+ */
+public class PartChecksumsTest {
+
+    @Test
+    public void testMd5CompositeMatchesS3MultipartETag() throws Exception {
+        PartChecksums checksums = new PartChecksums(ChecksumAlgorithm.MD5);
+        ByteBuffer part1 = ByteBuffer.wrap("first part".getBytes(StandardCharsets.UTF_8));
+        ByteBuffer part2 = ByteBuffer.wrap("second".getBytes(StandardCharsets.UTF_8));
+        byte[] md5Part1 = checksums.compute(part1);
+        byte[] md5Part2 = checksums.compute(part2);
+        checksums.record(1, md5Part1);
+        checksums.record(2, md5Part2);
+
+        MessageDigest md5 = MessageDigest.getInstance("MD5");
+        md5.update(md5Part1);
+        md5.update(md5Part2);
+        assertEquals(HexFormat.of().formatHex(md5.digest()) + "-2", checksums.composite(2));
+        assertEquals(0, part1.position());
+        assertNull(checksums.composite(3));
+    }
+
+    @Test
+    public void testETagComparedOnlyWhenItIsAPlainMd5() {
+        PartChecksums checksums = new PartChecksums(ChecksumAlgorithm.MD5);
+        byte[] checksum = checksums.compute(ByteBuffer.wrap(new byte[]{1, 2, 3}));
+        String hex = HexFormat.of().formatHex(checksum);
+
+        assertFalse(checksums.eTagMismatch("\"" + hex + "\"", checksum));
+        assertTrue(checksums.eTagMismatch("\"" + "0".repeat(32) + "\"", checksum));
+        assertFalse(checksums.eTagMismatch("\"kms-encrypted-etag\"", checksum));
+        assertFalse(new PartChecksums(ChecksumAlgorithm.CRC32C).eTagMismatch("\"" + "0".repeat(32) + "\"", checksum));
+    }
+
+    @Test
+    public void testCrc32cIsFourBytes() {
+        PartChecksums checksums = new PartChecksums(ChecksumAlgorithm.CRC32C);
+        // CRC32C("123456789") = 0xE3069283
+        byte[] checksum = checksums.compute(ByteBuffer.wrap("123456789".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals("e3069283", HexFormat.of().formatHex(checksum));
+        assertEquals("x-amz-checksum-crc32c", checksums.headerName());
+    }
+}
@@ -0,0 +1,35 @@
+package com.claims.documentapi;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for choosing the multipart part size from the file size
+ */
+public class PartSizePolicyTest {
+
+    private static final int MIB = 1024 * 1024;
+
+    private final MultipartUploadOptions options = MultipartUploadOptions.defaults();
+
+    @Test
+    public void testSmallFileIsUploadedAsOnePart() {
+        assertEquals(7 * MIB, PartSizePolicy.partSizeFor(7L * MIB, options));
+    }
+
+    @Test
+    public void testMidSizedFileIsSplitForParallelismButNotBelowFloor() {
+        assertEquals(5 * MIB, PartSizePolicy.partSizeFor(12L * MIB, options));
+        assertEquals(8 * MIB, PartSizePolicy.partSizeFor(64L * MIB, options));
+        assertEquals(10 * MIB, PartSizePolicy.partSizeFor(20L * 1024 * MIB, options));
+    }
+
+    @Test
+    public void testHugeFileStaysWithinPartLimit() {
+        long fileSize = 500L * 1024 * MIB;
+        int partSize = PartSizePolicy.partSizeFor(fileSize, options);
+        assertTrue((fileSize + partSize - 1) / partSize <= PartSizePolicy.MAX_PARTS);
+        assertEquals(0, partSize % MIB);
+    }
+}
@@ -0,0 +1,145 @@
+package com.claims.documentapi;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the presigned download URL cache
+ */
+public class PresignedUrlCacheTest {
+
+    private static final Instant NOW = Instant.parse("2024-05-01T12:00:00Z");
+
+    @Test
+    public void testEntryIsDroppedWithinSafetyMarginOfExpiry() {
+        PresignedUrlCache early = cache(10, NOW);
+        early.put("doc", "att", "https://bucket/key", NOW.plusSeconds(90));
+        assertEquals("https://bucket/key", early.get("doc", "att"));
+
+        PresignedUrlCache late = cache(10, NOW.plusSeconds(61));
+        late.put("doc", "att", "https://bucket/key", NOW.plusSeconds(90));
+        assertNull(late.get("doc", "att"));
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedBeyondCapacity() {
+        PresignedUrlCache cache = cache(2, NOW);
+        Instant expiry = NOW.plusSeconds(3600);
+        cache.put("doc", "a", "https://bucket/a", expiry);
+        cache.put("doc", "b", "https://bucket/b", expiry);
+        cache.get("doc", "a");
+        cache.put("doc", "c", "https://bucket/c", expiry);
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("doc", "a"));
+        assertNull(cache.get("doc", "b"));
+    }
+
+    @Test
+    public void testExpiryReadFromSignedUrl() {
+        assertEquals(Instant.parse("2024-05-01T12:15:00Z"), PresignedUrlCache.expiryOf(
+                "https://bucket.s3.amazonaws.com/key?X-Amz-Algorithm=AWS4-HMAC-SHA256&X-Amz-Date=20240501T120000Z&X-Amz-Expires=900&X-Amz-Signature=abc"));
+        assertEquals(Instant.ofEpochSecond(1714566000), PresignedUrlCache.expiryOf("https://bucket/key?Expires=1714566000&Signature=x"));
+        assertNull(PresignedUrlCache.expiryOf("https://bucket/key"));
+
+        PresignedUrlCache cache = cache(10, NOW);
+        cache.put("doc", "unsigned", "https://bucket/key", null);
+        assertNull(cache.get("doc", "unsigned"));
+    }
+
+    @Test
+    public void testListedDocumentsFillCacheAndUrlsAreReturnedTrimmed() throws IOException {
+        long expires = Instant.now().plusSeconds(3600).getEpochSecond();
+        String listing = "[{\"id\":\"doc1\",\"documents\":[{\"id\":\"att1\",\"documentId\":\"doc1\","
+                + "\"presignedUrl\":\"https://bucket/att1?Expires=" + expires + "\"}]}]";
+        AtomicInteger urlRequests = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/documents", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            if (path.endsWith("/download")) {
+                urlRequests.incrementAndGet();
+                respond(exchange, "text/plain", "  https://bucket/att2?Expires=" + expires + "\n");
+            } else {
+                respond(exchange, "application/json", listing);
+            }
+        });
+        server.start();
+        try (DocumentApiClient client = new DocumentApiClient("http://localhost:" + server.getAddress().getPort())) {
+            for (int i = 0; i < 2; i++) {
+                client.getDocuments();
+                assertEquals("https://bucket/att1?Expires=" + expires, client.getAttachmentDownloadUrl("doc1", "att1"));
+            }
+            assertEquals(0, urlRequests.get());
+
+            String cold = client.getAttachmentDownloadUrl("doc1", "att2");
+            String warm = client.getAttachmentDownloadUrl("doc1", "att2");
+            assertEquals("https://bucket/att2?Expires=" + expires, cold);
+            assertEquals(cold, warm);
+            assertEquals(1, urlRequests.get());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testTenantsSharingTheCacheGetOnlyTheirOwnUrls() throws IOException {
+        long expires = Instant.now().plusSeconds(3600).getEpochSecond();
+        AtomicInteger urlRequests = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/documents", exchange -> {
+            urlRequests.incrementAndGet();
+            String token = exchange.getRequestHeaders().getFirst("Authorization").substring("Bearer ".length());
+            respond(exchange, "text/plain", "https://bucket/" + token + "?Expires=" + expires);
+        });
+        server.start();
+        try (DocumentApiClient client = new DocumentApiClient("http://localhost:" + server.getAddress().getPort())) {
+            client.setAuthToken("tenant-a", "token-a");
+            client.setAuthToken("tenant-b", "token-b");
+            DocumentApiClient tenantA = client.forTenant("tenant-a");
+            DocumentApiClient tenantB = client.forTenant("tenant-b");
+
+            assertEquals("https://bucket/token-a?Expires=" + expires, tenantA.getAttachmentDownloadUrl("doc1", "att1"));
+            assertEquals("https://bucket/token-b?Expires=" + expires, tenantB.getAttachmentDownloadUrl("doc1", "att1"));
+            assertEquals("https://bucket/token-a?Expires=" + expires, tenantA.getAttachmentDownloadUrl("doc1", "att1"));
+            assertEquals("https://bucket/token-b?Expires=" + expires, tenantB.getAttachmentDownloadUrl("doc1", "att1"));
+            assertEquals(2, urlRequests.get());
+            assertEquals(2, client.getPresignedUrlCache().size());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testScopeIsTheTokenWhenThereIsOneElseTheTenant() {
+        assertEquals("tenant:claims", PresignedUrlCache.scopeOf("claims", null));
+        assertEquals(PresignedUrlCache.scopeOf("claims", "token-a"), PresignedUrlCache.scopeOf("underwriting", "token-a"));
+        assertNotEquals(PresignedUrlCache.scopeOf("claims", "token-a"), PresignedUrlCache.scopeOf("claims", "token-b"));
+        assertFalse(PresignedUrlCache.scopeOf("claims", "token-a").contains("token-a"));
+    }
+
+    private static void respond(HttpExchange exchange, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static PresignedUrlCache cache(int maxEntries, Instant now) {
+        return new PresignedUrlCache(maxEntries, Duration.ofSeconds(30), Duration.ZERO, Clock.fixed(now, ZoneOffset.UTC));
+    }
+}
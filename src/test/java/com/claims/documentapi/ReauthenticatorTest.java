@@ -0,0 +1,95 @@
+package com.claims.documentapi;
+
+import com.claims.documentapi.dto.LoginRequest;
+import com.claims.documentapi.dto.LoginResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for single-flight re-authentication
+ */
+public class ReauthenticatorTest {
+
+    @Test
+    public void testConcurrentRejectionsShareOneLogin() throws Exception {
+        LoginRequest credentials = new LoginRequest();
+        AtomicReference<String> stored = new AtomicReference<>("expired");
+        CountDownLatch allRejected = new CountDownLatch(8);
+        DocumentApiClient client = mock(DocumentApiClient.class);
+        DocumentApiClient scoped = mock(DocumentApiClient.class);
+        when(client.storedToken("claims")).thenAnswer(invocation -> stored.get());
+        when(client.forTenant("claims")).thenReturn(scoped);
+        when(scoped.login(credentials)).thenAnswer(invocation -> {
+            // Keep the login in progress until every call has been rejected
+            allRejected.await(5, TimeUnit.SECONDS);
+            Thread.sleep(50);
+            LoginResponse response = new LoginResponse();
+            response.setToken("renewed");
+            stored.set("renewed");
+            return response;
+        });
+
+        Reauthenticator reauthenticator = new Reauthenticator(client, CredentialProvider.of(Map.of("claims", credentials)));
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> {
+                    allRejected.countDown();
+                    return reauthenticator.reauthenticate("claims", "expired", null);
+                }));
+            }
+            for (Future<String> result : results) {
+                assertEquals("renewed", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, reauthenticator.getLogins());
+        verify(scoped, times(1)).login(credentials);
+
+        // A call rejected with the token that was just replaced is replayed without logging in
+        assertEquals("renewed", reauthenticator.reauthenticate("claims", "expired", null));
+        assertEquals(1, reauthenticator.getLogins());
+    }
+
+    @Test
+    public void testTenantWithoutCredentialsIsNotReauthenticated() {
+        DocumentApiClient client = mock(DocumentApiClient.class);
+        when(client.storedToken("underwriting")).thenReturn("expired");
+
+        Reauthenticator reauthenticator = new Reauthenticator(client, tenant -> null);
+
+        assertNull(reauthenticator.reauthenticate("underwriting", "expired", null));
+        assertEquals(0, reauthenticator.getLogins());
+        verify(client, never()).forTenant(anyString());
+    }
+
+    @Test
+    public void testFailedLoginIsReportedToWaitingCalls() {
+        LoginRequest credentials = new LoginRequest();
+        DocumentApiClient client = mock(DocumentApiClient.class);
+        DocumentApiClient scoped = mock(DocumentApiClient.class);
+        when(client.storedToken("claims")).thenReturn("expired");
+        when(client.forTenant("claims")).thenReturn(scoped);
+        when(scoped.login(credentials)).thenThrow(new IllegalStateException("login unavailable"));
+
+        Reauthenticator reauthenticator = new Reauthenticator(client, tenant -> credentials);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> reauthenticator.reauthenticate("claims", "expired", null));
+        assertEquals("login unavailable", e.getMessage());
+    }
+}
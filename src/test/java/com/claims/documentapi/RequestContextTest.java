@@ -0,0 +1,45 @@
+package com.claims.documentapi;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for scoped clients carrying an immutable request context
+ */
+public class RequestContextTest {
+
+    @Test
+    public void testScopedClientHasFixedTenantAndLeavesParentAlone() {
+        try (DocumentApiClient client = new DocumentApiClient("http://localhost:1")) {
+            client.setActiveTenant("claims");
+            DocumentApiClient underwriting = client.forTenant("underwriting");
+
+            assertEquals("underwriting", underwriting.getActiveTenant());
+            assertEquals("claims", client.getActiveTenant());
+            assertThrows(IllegalStateException.class, () -> underwriting.setActiveTenant("claims"));
+
+            RequestContext locked = underwriting.getContext().withLockId("lock-1");
+            assertEquals("underwriting", locked.getTenant());
+            assertEquals("lock-1", locked.getLockId());
+            assertNull(underwriting.getContext().getLockId());
+
+            // Closing a scoped client must not close the shared transport
+            underwriting.close();
+            assertEquals("claims", client.getActiveTenant());
+        }
+    }
+
+    @Test
+    public void testCallIsRefusedOnceTheDeadlineHasPassed() {
+        try (DocumentApiClient client = new DocumentApiClient("http://localhost:1")) {
+            DocumentApiClient scoped = client.withContext(RequestContext.forTenant("claims")
+                    .withDeadline(Instant.now().minusSeconds(1)));
+            ResourceAccessException e = assertThrows(ResourceAccessException.class, () -> scoped.getDocument("doc-1"));
+            assertTrue(e.getMessage().contains("deadline"), e.getMessage());
+        }
+    }
+}
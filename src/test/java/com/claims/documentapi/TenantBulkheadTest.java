@@ -0,0 +1,74 @@
+package com.claims.documentapi;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for per-tenant bulkheads
+ */
+public class TenantBulkheadTest {
+
+    @Test
+    public void testFullTenantDoesNotBlockOthers() throws Exception {
+        TenantBulkhead bulkhead = new TenantBulkhead(2, 4, Duration.ofSeconds(5));
+
+        TenantBulkhead.Permit first = bulkhead.acquire("claims");
+        TenantBulkhead.Permit second = bulkhead.acquire("claims");
+        BulkheadFullException e = assertThrows(BulkheadFullException.class,
+                () -> bulkhead.acquire("claims", Duration.ofMillis(50)));
+        assertEquals("claims", e.getTenant());
+
+        try (TenantBulkhead.Permit other = bulkhead.acquire("underwriting", Duration.ZERO)) {
+            assertEquals(1, bulkhead.getStats("underwriting").active());
+        }
+
+        TenantBulkhead.Stats claims = bulkhead.getStats("claims");
+        assertEquals(2, claims.active());
+        assertEquals(2, claims.admitted());
+        assertEquals(1, claims.rejected());
+
+        first.close();
+        first.close();
+        second.close();
+        assertEquals(0, bulkhead.getStats("claims").active());
+        assertEquals(0, bulkhead.getStats("underwriting").active());
+    }
+
+    @Test
+    public void testQueuedCallIsAdmittedWhenSlotFreesAndOverflowIsRejected() throws Exception {
+        TenantBulkhead bulkhead = new TenantBulkhead(4, 4, Duration.ofSeconds(5));
+        bulkhead.setLimits("claims", 1, 1);
+
+        TenantBulkhead.Permit held = bulkhead.acquire("claims");
+        CompletableFuture<TenantBulkhead.Permit> queued = CompletableFuture.supplyAsync(() -> {
+            try {
+                return bulkhead.acquire("claims");
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        long waitUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (bulkhead.getStats("claims").queued() == 0 && System.nanoTime() < waitUntil) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, bulkhead.getStats("claims").queued());
+
+        // The queue holds one call, so the next one is turned away without waiting
+        assertThrows(BulkheadFullException.class, () -> bulkhead.acquire("claims"));
+
+        held.close();
+        queued.get(5, TimeUnit.SECONDS).close();
+
+        TenantBulkhead.Stats stats = bulkhead.getStats("claims");
+        assertEquals(2, stats.admitted());
+        assertEquals(1, stats.delayed());
+        assertEquals(1, stats.rejected());
+        assertEquals(0, stats.queued());
+        assertEquals(0, stats.active());
+    }
+}
@@ -0,0 +1,75 @@
+package com.claims.documentapi;
+
+import com.claims.documentapi.dto.LoginRequest;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for background token refresh
+ */
+public class TokenRefresherTest {
+
+    @Test
+    public void testExpiryIsReadFromJwt() {
+        assertEquals(Instant.ofEpochSecond(1714566000), TokenRefresher.jwtExpiry(jwt(1714566000)));
+        assertNull(TokenRefresher.jwtExpiry("opaque-token"));
+        assertNull(TokenRefresher.jwtExpiry("not.a-jwt.at-all"));
+    }
+
+    @Test
+    public void testTokenIsRefreshedBeforeExpiryAndRetriedAfterFailure() {
+        LoginRequest credentials = new LoginRequest();
+        credentials.setUsername("svc-claims");
+        DocumentApiClient client = mock(DocumentApiClient.class);
+        DocumentApiClient scoped = mock(DocumentApiClient.class);
+        when(client.forTenant("claims")).thenReturn(scoped);
+        when(scoped.login(credentials)).thenThrow(new RuntimeException("login unavailable")).thenReturn(null);
+
+        TokenRefreshOptions options = TokenRefreshOptions.builder()
+                .refreshAhead(Duration.ofHours(1))
+                .retryBackoff(Duration.ofMillis(50))
+                .build();
+        try (TokenRefresher refresher = new TokenRefresher(client, CredentialProvider.of(Map.of("claims", credentials)), options)) {
+            long exp = Instant.now().plusSeconds(1).getEpochSecond();
+            refresher.tokenIssued("claims", jwt(exp), null);
+            assertEquals(Instant.ofEpochSecond(exp), refresher.getExpiry("claims"));
+
+            // Refreshed at 80% of the one-second lifetime, then once more after the failed attempt
+            verify(scoped, timeout(3000).times(2)).login(credentials);
+
+            refresher.tokenIssued("underwriting", "opaque-token", null);
+            assertNull(refresher.getExpiry("underwriting"));
+        }
+    }
+
+    @Test
+    public void testExpiredTokenIsNotRefreshed() {
+        LoginRequest credentials = new LoginRequest();
+        DocumentApiClient client = mock(DocumentApiClient.class);
+        DocumentApiClient scoped = mock(DocumentApiClient.class);
+        when(client.forTenant("claims")).thenReturn(scoped);
+
+        TokenRefreshOptions options = TokenRefreshOptions.builder().retryBackoff(Duration.ofMillis(10)).build();
+        try (TokenRefresher refresher = new TokenRefresher(client, CredentialProvider.of(Map.of("claims", credentials)), options)) {
+            long exp = Instant.now().minusSeconds(60).getEpochSecond();
+            refresher.tokenIssued("claims", jwt(exp), null);
+            assertEquals(Instant.ofEpochSecond(exp), refresher.getExpiry("claims"));
+
+            verify(scoped, after(300).never()).login(any());
+        }
+    }
+
+    private static String jwt(long exp) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString("{\"alg\":\"HS256\"}".getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(("{\"sub\":\"svc\",\"exp\":" + exp + "}").getBytes(StandardCharsets.UTF_8)) + ".sig";
+    }
+}
@@ -0,0 +1,83 @@
+package com.claims.documentapi;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for transfer progress reporting
+ */
+public class TransferTrackerTest {
+
+    @Test
+    public void testEventsArriveInOrderAndRetriesTakeBackTheirBytes() throws Exception {
+        List<String> events = new CopyOnWriteArrayList<>();
+        CompletableFuture<TransferProgress> completed = new CompletableFuture<>();
+        TransferListener listener = new TransferListener() {
+            @Override
+            public void onStarted(TransferProgress progress) {
+                events.add("started");
+            }
+
+            @Override
+            public void onPartCompleted(TransferProgress progress, int partNumber, long bytes, Duration latency) {
+                events.add("part " + partNumber);
+            }
+
+            @Override
+            public void onRetry(TransferProgress progress, int partNumber, int attempt, Throwable cause) {
+                events.add("retry " + partNumber);
+            }
+
+            @Override
+            public void onCompleted(TransferProgress progress) {
+                completed.complete(progress);
+            }
+        };
+
+        TransferTracker tracker = TransferTracker.start(listener, TransferProgress.Direction.UPLOAD, "doc", "a.pdf", 200, 2);
+        tracker.bytes(100);
+        tracker.partCompleted(1, 100, 1_000_000);
+        tracker.bytes(60);
+        tracker.retry(2, 1, 60, new RuntimeException("reset"));
+        tracker.bytes(100);
+        tracker.partCompleted(2, 100, 2_000_000);
+        tracker.completed();
+
+        TransferProgress progress = completed.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("started", "part 1", "retry 2", "part 2"), events);
+        assertEquals(200, progress.bytesTransferred());
+        assertEquals(2, progress.partsCompleted());
+        assertEquals(1, progress.retries());
+        assertEquals(1.0, progress.fraction());
+    }
+
+    @Test
+    public void testWrappedStreamIsCountedAndUntrackedTransferIsLeftAlone() throws Exception {
+        CompletableFuture<TransferProgress> completed = new CompletableFuture<>();
+        TransferTracker tracker = TransferTracker.start(new TransferListener() {
+            @Override
+            public void onCompleted(TransferProgress progress) {
+                completed.complete(progress);
+            }
+        }, TransferProgress.Direction.UPLOAD, "doc", "2 files", -1, 1);
+        try (OutputStream out = tracker.wrap(new ByteArrayOutputStream())) {
+            out.write(new byte[1000], 0, 1000);
+            out.write(1);
+        }
+        tracker.completed();
+        assertEquals(1001, completed.get(5, TimeUnit.SECONDS).bytesTransferred());
+        assertEquals(-1, completed.get().fraction());
+
+        OutputStream raw = new ByteArrayOutputStream();
+        assertSame(raw, TransferTracker.start(null, TransferProgress.Direction.DOWNLOAD, null, null, -1, -1).wrap(raw));
+    }
+}